@@ -1,8 +1,6 @@
 package inc.nomard.aurora_demo;
 
-import javafx.animation.Animation;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.scene.Scene;
 import javafx.scene.canvas.Canvas;
@@ -15,11 +13,7 @@ import javafx.scene.paint.CycleMethod;
 import javafx.scene.paint.RadialGradient;
 import javafx.scene.paint.Stop;
 import javafx.stage.Stage;
-import javafx.util.Duration;
 
-import javafx.animation.Animation;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
 import javafx.application.Application;
 import javafx.scene.Scene;
 import javafx.scene.canvas.Canvas;
@@ -29,22 +23,64 @@ import javafx.scene.effect.BoxBlur;
 import javafx.scene.layout.Pane;
 import javafx.scene.paint.*;
 import javafx.stage.Stage;
-import javafx.util.Duration;
 
+/**
+ * Blurred radial gradients SOFT_LIGHT-blended on a cleared canvas, shown
+ * over the scene's fill. With {@code -Daurora.software=true} the same layers
+ * are composited by the integer {@link FixedPointCompositor} into an
+ * {@link AuroraSurface} instead, with no canvas blend mode or effect: they
+ * blend into a transparent group, the first one source-over as on the
+ * cleared canvas, which is then drawn onto the same fill.
+ */
 public class AuroraBackground extends Application {
 
     private static final int WIDTH = 800;
     private static final int HEIGHT = 600;
     private static final int NUM_LAYERS = 5;
     private static final double BLUR_AMOUNT = 100;
+    private static final double MAX_FPS = 60; // 0 follows the display's refresh rate
+    private static final double TICK = 0.016; // seconds, the step the angle speeds were tuned for
+    // Gradients are cached per quantized hue and opacity
+    private static final double MIN_HUE = 140;
+    private static final double HUE_STEP = 1; // degrees
+    private static final double MIN_OPACITY = 0.1;
+    private static final double OPACITY_STEP = 0.005;
+    private static final double GRADIENT_RADIUS = WIDTH * 0.8;
+    private static final boolean SOFTWARE = Boolean.getBoolean("aurora.software");
+    private static final Color BACKDROP = Color.WHITE; // the scene's fill, under both paths
 
     private final double[] hueAngles = new double[NUM_LAYERS];
     private final double[] opacityAngles = new double[NUM_LAYERS];
     private final double[] movementAngles = new double[NUM_LAYERS];
+    private final FrameClock clock = DeterministicMode.newClock(MAX_FPS);
+    private final GradientCache.Style<RadialGradient> gradients =
+            GradientCache.shared().style("background-radial", AuroraBackground::createGradient);
+
+    // Centered on the origin, the transform moves it into place
+    private static RadialGradient createGradient(int hueStep, int opacityStep) {
+        return new RadialGradient(
+                0, 0,
+                0, 0,
+                GRADIENT_RADIUS,
+                false,
+                CycleMethod.NO_CYCLE,
+                new Stop(0, Color.hsb(MIN_HUE + hueStep * HUE_STEP, 0.6, 0.8, MIN_OPACITY + opacityStep * OPACITY_STEP)),
+                new Stop(1, Color.TRANSPARENT)
+        );
+    }
 
     @Override
     public void start(Stage primaryStage) {
         Pane root = new Pane();
+        AnimationTimer timer = SOFTWARE ? softwareTimer(root) : canvasTimer(root);
+        timer.start();
+
+        primaryStage.setScene(new Scene(root, WIDTH, HEIGHT, BACKDROP));
+        primaryStage.show();
+        new VisibilityThrottle(primaryStage, root, timer, clock);
+    }
+
+    private AnimationTimer canvasTimer(Pane root) {
         Canvas canvas = new Canvas(WIDTH, HEIGHT);
         root.getChildren().add(canvas);
 
@@ -52,46 +88,94 @@ public class AuroraBackground extends Application {
         gc.setGlobalBlendMode(BlendMode.SOFT_LIGHT);
         gc.setEffect(new BoxBlur(BLUR_AMOUNT, BLUR_AMOUNT, 3));
 
-        Timeline timeline = new Timeline(
-                new KeyFrame(Duration.millis(16), e -> updateAurora(gc))
-        );
-        timeline.setCycleCount(Animation.INDEFINITE);
-        timeline.play();
+        return new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if (clock.tick(now)) {
+                    updateAurora(gc);
+                }
+            }
+        };
+    }
 
-        primaryStage.setScene(new Scene(root, WIDTH, HEIGHT));
-        primaryStage.show();
+    // Every layer blended in one integer pass, the edge falloff stands in for the BoxBlur
+    private AnimationTimer softwareTimer(Pane root) {
+        AuroraSurface surface = new AuroraSurface();
+        surface.resize(WIDTH, HEIGHT);
+        root.getChildren().add(surface.getView());
+
+        PixelRasterizer rasterizer = new PixelRasterizer(
+                FixedPointCompositor.overBackdrop(AuroraMath.toArgb(BACKDROP), BlendMode.SOFT_LIGHT));
+        LayerFrame frame = new LayerFrame(NUM_LAYERS);
+        return new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if (clock.tick(now)) {
+                    updateAurora(frame);
+                    surface.render(frame, rasterizer);
+                }
+            }
+        };
     }
 
     private void updateAurora(GraphicsContext gc) {
         gc.clearRect(0, 0, WIDTH, HEIGHT);
 
+        double ticks = clock.getStep() / TICK;
         for (int i = 0; i < NUM_LAYERS; i++) {
-            // Animate parameters at different speeds
-            movementAngles[i] += 0.3 + (i * 0.05);
-            hueAngles[i] += 0.5 + (i * 0.1);
-            opacityAngles[i] += 0.2 + (i * 0.05);
-
-            // Calculate dynamic properties
-            double xOffset = Math.cos(Math.toRadians(movementAngles[i])) * WIDTH / 3;
-            double yOffset = Math.sin(Math.toRadians(movementAngles[i])) * HEIGHT / 4;
-            double hue = (Math.sin(Math.toRadians(hueAngles[i])) * 60) + 200;
-            double opacity = (Math.sin(Math.toRadians(opacityAngles[i])) * 0.2 + 0.3);
-
-            // Create gradient with current values
-            RadialGradient gradient = new RadialGradient(
-                    0, 0,
-                    WIDTH / 2 + xOffset,
-                    HEIGHT / 2 + yOffset,
-                    WIDTH * 0.8,
-                    false,
-                    CycleMethod.NO_CYCLE,
-                    new Stop(0, Color.hsb(hue, 0.6, 0.8, opacity)),
-                    new Stop(1, Color.TRANSPARENT)
-            );
-
-            gc.setFill(gradient);
-            gc.fillRect(0, 0, WIDTH, HEIGHT);
+            advance(i, ticks);
+
+            // Pick the gradient for the current values and translate it to its center
+            double centerX = centerX(i);
+            double centerY = centerY(i);
+            gc.setFill(gradients.get((int) Math.round((hue(i) - MIN_HUE) / HUE_STEP),
+                    (int) Math.round((opacity(i) - MIN_OPACITY) / OPACITY_STEP)));
+            gc.setTransform(1, 0, 0, 1, centerX, centerY);
+            gc.fillRect(-centerX, -centerY, WIDTH, HEIGHT);
         }
+        gc.setTransform(1, 0, 0, 1, 0, 0);
+    }
+
+    private void updateAurora(LayerFrame frame) {
+        double ticks = clock.getStep() / TICK;
+        for (int i = 0; i < NUM_LAYERS; i++) {
+            advance(i, ticks);
+
+            frame.centerX[i] = frame.gradientX[i] = centerX(i);
+            frame.centerY[i] = frame.gradientY[i] = centerY(i);
+            frame.radius[i] = GRADIENT_RADIUS;
+            frame.blur[i] = BLUR_AMOUNT;
+            // The compositor scales alpha by the base opacity, undo that to match the canvas
+            Color color = Color.hsb(hue(i), 0.6, 0.8);
+            double alpha = opacity(i) / PixelRasterizer.BASE_OPACITY;
+            double midAlpha = alpha * (1 - LayerFrame.MID_STOP);
+            frame.innerStop[i] = AuroraMath.pack(alpha, color.getRed(), color.getGreen(), color.getBlue());
+            frame.midStop[i] = AuroraMath.pack(midAlpha, color.getRed(), color.getGreen(), color.getBlue());
+            frame.outerStop[i] = 0;
+        }
+    }
+
+    // Animate parameters at different speeds
+    private void advance(int i, double ticks) {
+        movementAngles[i] += (0.3 + (i * 0.05)) * ticks;
+        hueAngles[i] += (0.5 + (i * 0.1)) * ticks;
+        opacityAngles[i] += (0.2 + (i * 0.05)) * ticks;
+    }
+
+    private double centerX(int i) {
+        return WIDTH / 2 + Math.cos(Math.toRadians(movementAngles[i])) * WIDTH / 3;
+    }
+
+    private double centerY(int i) {
+        return HEIGHT / 2 + Math.sin(Math.toRadians(movementAngles[i])) * HEIGHT / 4;
+    }
+
+    private double hue(int i) {
+        return (Math.sin(Math.toRadians(hueAngles[i])) * 60) + 200;
+    }
+
+    private double opacity(int i) {
+        return Math.sin(Math.toRadians(opacityAngles[i])) * 0.2 + 0.3;
     }
 
     public static void main(String[] args) {
@@ -1,8 +1,6 @@
 package inc.nomard.aurora_demo;
 
-import javafx.animation.Animation;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.scene.Scene;
 import javafx.scene.effect.BlendMode;
@@ -13,9 +11,6 @@ import javafx.scene.layout.Pane;
 import javafx.scene.paint.*;
 import javafx.scene.shape.Circle;
 import javafx.stage.Stage;
-import javafx.util.Duration;
-
-import java.util.Random;
 
 public class AuroraCircles extends Application {
 
@@ -23,6 +18,17 @@ public class AuroraCircles extends Application {
     private static final double MAX_BLUR = 200;
     private static final double MIN_BLUR = 80;
     private static final double BASE_OPACITY = 0.7;
+    private static final RenderScale RENDER_SCALE = RenderScale.FULL;
+    private static final ResolutionPolicy RESOLUTION = ResolutionPolicy.LOGICAL; // DEVICE draws at the screen's full resolution
+    private static final int DEPTH_BANDS = 0; // 0 gives every layer its own blur
+    private static final int BLUR_ITERATIONS = 3;
+    private static final double MAX_FPS = 60; // 0 follows the display's refresh rate
+    // Changes smaller than these aren't written to the nodes
+    private static final double WRITE_THRESHOLD_PX = 0.25;
+    private static final double WRITE_THRESHOLD_SCALE = 0.0005;
+    private static final double WRITE_THRESHOLD_DELTA_E = 0.5;
+    // The base color of every quantized shade, to compare shades perceptually
+    private static final Color[] SHADE_COLORS = shadeColors();
 
     private final Color[] COLOR_PALETTE = {
             Color.color(0.125, 0, 0.224),    // Deep purple
@@ -34,18 +40,26 @@ public class AuroraCircles extends Application {
     };
 
     private final AuroraLayer[] layers = new AuroraLayer[NUM_LAYERS];
-    private Timeline animationTimeline;
-    private double globalTime = 0;
+    private MotionOscillators motion;
+    private OffscreenLayerSurface offscreen;
+    private DepthBands depthBands;
+    private final FrameClock clock = DeterministicMode.newClock(MAX_FPS);
+    private final GradientCache.Style<RadialGradient> fills = AuroraMath.layerGradients();
+    private final PropertyWriteFilter writeFilter = new PropertyWriteFilter(
+            WRITE_THRESHOLD_PX * RENDER_SCALE.getFactor(), WRITE_THRESHOLD_SCALE, WRITE_THRESHOLD_DELTA_E);
+    private ResizeCoalescer resizes;
+    private AnimationTimer animationTimer;
 
     @Override
     public void start(Stage stage) {
         Pane root = createRootPane();
-        initializeLayers(root);
+        initializeLayers(createLayerPane(root));
         setupAnimation();
 
         Scene scene = new Scene(root, 1280, 720);
         stage.setScene(scene);
         stage.show();
+        new VisibilityThrottle(stage, root, animationTimer, clock);
 
         // Initial update after stage is visible
         updateLayerSizes(scene.getWidth(), scene.getHeight());
@@ -62,126 +76,113 @@ public class AuroraCircles extends Application {
         return pane;
     }
 
+    private Pane createLayerPane(Pane root) {
+        // Draw the layers offscreen at a fraction of the scene size and upscale the result. At full
+        // scale they are drawn directly unless the screen's resolution is above the policy's
+        offscreen = new OffscreenLayerSurface(RENDER_SCALE, root.getBackground());
+        offscreen.setResolutionPolicy(RESOLUTION);
+        root.getChildren().add(offscreen.getNode());
+        return offscreen.getLayers();
+    }
+
     private void initializeLayers(Pane parent) {
-        Random rand = new Random();
+        if (DEPTH_BANDS > 0) {
+            // Blur a few groups of sharp layers once instead of every layer
+            depthBands = new DepthBands(parent, DEPTH_BANDS,
+                    MIN_BLUR * RENDER_SCALE.getFactor(), MAX_BLUR * RENDER_SCALE.getFactor(), BLUR_ITERATIONS, BlendMode.SCREEN);
+        }
+
+        // Phase-wrapped, so the layers move as smoothly after days as after seconds
+        LayerStore store = new LayerStore(NUM_LAYERS, DeterministicMode.newRandom(), COLOR_PALETTE.length,
+                MIN_BLUR, MAX_BLUR);
+        motion = new MotionOscillators(store, COLOR_PALETTE.length);
         for (int i = 0; i < NUM_LAYERS; i++) {
-            layers[i] = new AuroraLayer(parent, i, rand);
+            layers[i] = new AuroraLayer(parent, i);
         }
     }
 
     private void setupAnimation() {
-        animationTimeline = new Timeline(
-                new KeyFrame(Duration.millis(16), e -> {
-                    globalTime += 0.016;
+        animationTimer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if (clock.tick(now)) {
                     updateLayers();
-                })
-        );
-        animationTimeline.setCycleCount(Animation.INDEFINITE);
-        animationTimeline.play();
+                    offscreen.render();
+                }
+            }
+        };
+        animationTimer.start();
     }
 
     private void setupResizeListeners(Scene scene) {
-        scene.widthProperty().addListener((obs, ov, nv) ->
-                updateLayerSizes(nv.doubleValue(), scene.getHeight())
-        );
-
-        scene.heightProperty().addListener((obs, ov, nv) ->
-                updateLayerSizes(scene.getWidth(), nv.doubleValue())
-        );
+        // A drag only stretches the last frame, the layers are laid out again once it settles
+        resizes = new ResizeCoalescer(scene.widthProperty(), scene.heightProperty(),
+                offscreen::stretch, this::updateLayerSizes);
     }
 
     private void updateLayerSizes(double width, double height) {
+        offscreen.resize(width, height);
         for (AuroraLayer layer : layers) {
-            layer.updateSize(width, height);
+            layer.updateSize(width * RENDER_SCALE.getFactor(), height * RENDER_SCALE.getFactor());
         }
     }
 
     private void updateLayers() {
+        motion.advance(clock.getStep());
         for (AuroraLayer layer : layers) {
-            layer.update(globalTime);
+            layer.update();
+        }
+    }
+
+    private static Color[] shadeColors() {
+        Color[] colors = new Color[AuroraMath.COLOR_PALETTE.length * AuroraMath.GRADIENT_SHADES];
+        for (int shade = 0; shade < colors.length; shade++) {
+            colors[shade] = GradientCache.paletteColor(AuroraMath.COLOR_PALETTE, shade, AuroraMath.GRADIENT_SHADES, true);
         }
+        return colors;
     }
 
     private class AuroraLayer {
         private final Circle circle;
         private final int layerIndex;
-        private final Random rand;
-        private final double[] motionParams;
         private double baseX, baseY;
+        private BoxBlur blurEffect;
+        private Color appliedColor;
+        private int appliedOffsetStep;
 
-        AuroraLayer(Pane parent, int index, Random random) {
+        AuroraLayer(Pane parent, int index) {
             this.layerIndex = index;
-            this.rand = random;
-            this.motionParams = new double[4];
             this.circle = createCircle(parent);
-            initializeMotionParams();
         }
 
         private Circle createCircle(Pane parent) {
             Circle c = new Circle();
             c.setOpacity(BASE_OPACITY);
             c.setBlendMode(BlendMode.SCREEN);  // Soft blending
-            parent.getChildren().add(c);
-            return c;
-        }
-
-        private void initializeMotionParams() {
-            for (int i = 0; i < motionParams.length; i++) {
-                motionParams[i] = rand.nextDouble() * 2 * Math.PI;
+            double blur = calculateBlur() * RENDER_SCALE.getFactor();
+            if (depthBands != null) {
+                depthBands.add(c, blur);
+            } else {
+                // One blur per layer for its lifetime, updated in place
+                blurEffect = new BoxBlur(blur, blur, BLUR_ITERATIONS);
+                c.setEffect(blurEffect);
+                parent.getChildren().add(c);
             }
+            return c;
         }
 
-        void update(double time) {
+        void update() {
             // Smooth color transition
-            Color color = calculateColor(time);
+            double colorProgress = motion.colorProgress(layerIndex);
 
             // Organic motion calculations
-            double xOffset = calculateXOffset(time);
-            double yOffset = calculateYOffset(time);
-            double scale = calculateScale(time);
-            double rotation = calculateRotation(time);
-            double blur = calculateBlur();
-
-            updateVisuals(xOffset, yOffset, scale, rotation, blur, color);
-        }
-
-        private Color calculateColor(double time) {
-            double colorProgress = (time * 0.15 + layerIndex * 0.2) % COLOR_PALETTE.length;
-            int index1 = (int) colorProgress;
-            int index2 = (index1 + 1) % COLOR_PALETTE.length;
-            double blend = colorProgress - index1;
-
-            return interpolateColor(
-                    COLOR_PALETTE[index1],
-                    COLOR_PALETTE[index2],
-                    smoothStep(blend)
-            );
-        }
+            double xOffset = motion.xOffset(layerIndex) * RENDER_SCALE.getFactor();
+            double yOffset = motion.yOffset(layerIndex) * RENDER_SCALE.getFactor();
+            double scale = motion.scale();
+            double rotation = motion.rotation();
+            double blur = calculateBlur() * RENDER_SCALE.getFactor();
 
-        private Color interpolateColor(Color c1, Color c2, double t) {
-            return c1.interpolate(c2, t);
-        }
-
-        private double smoothStep(double t) {
-            return t * t * (3 - 2 * t);
-        }
-
-        private double calculateXOffset(double time) {
-            return Math.sin(time * 0.35 + motionParams[0]) * 250
-                    + Math.cos(time * 0.25 + motionParams[1]) * 150;
-        }
-
-        private double calculateYOffset(double time) {
-            return Math.sin(time * 0.3 + motionParams[2]) * 200
-                    + Math.cos(time * 0.4 + motionParams[3]) * 100;
-        }
-
-        private double calculateScale(double time) {
-            return 0.8 + Math.sin(time * 0.4) * 0.3;
-        }
-
-        private double calculateRotation(double time) {
-            return Math.sin(time * 0.2) * 15;
+            updateVisuals(xOffset, yOffset, scale, rotation, blur, colorProgress);
         }
 
         private double calculateBlur() {
@@ -191,29 +192,48 @@ public class AuroraCircles extends Application {
 
         private void updateVisuals(double xOffset, double yOffset,
                                    double scale, double rotation,
-                                   double blur, Color color) {
-            // Update gradient with dynamic center
-            RadialGradient gradient = new RadialGradient(
-                    0, 0,
-                    circle.getCenterX() + xOffset * 0.5,
-                    circle.getCenterY() + yOffset * 0.5,
-                    circle.getRadius(),
-                    false,
-                    CycleMethod.NO_CYCLE,
-                    new Stop(0, color.deriveColor(0, 1, 1.2, 0.9)),
-                    new Stop(0.7, color.deriveColor(0, 1, 0.8, 0.4)),
-                    new Stop(1, color.deriveColor(0, 1, 0.5, 0.1))
-            );
-
-            circle.setFill(gradient);
-            circle.setEffect(new BoxBlur(blur, blur, 3));
-            circle.setScaleX(scale);
-            circle.setScaleY(scale);
-            circle.setRotate(rotation);
+                                   double blur, double colorProgress) {
+            // The gradient sits half the motion off the circle's center. The circle is round, so
+            // turning it points that offset instead, and the fill only depends on the shade and
+            // the offset's length, both quantized into the gradient cache
+            double gradientX = xOffset * 0.5;
+            double gradientY = yOffset * 0.5;
+            double gradientOffset = Math.hypot(gradientX, gradientY);
+            int shade = GradientCache.shade(colorProgress, AuroraMath.GRADIENT_SHADES);
+            int offsetStep = AuroraMath.gradientOffsetStep(gradientOffset, circle.getRadius());
+            // Neighbouring shades can be closer than the eye tells apart, around the palette
+            // colors the smooth step barely moves, so a new shade alone doesn't swap the fill
+            double stepPx = circle.getRadius() * scale / AuroraMath.GRADIENT_OFFSET_STEPS;
+            if (writeFilter.write(writeFilter.colorChanged(appliedColor, SHADE_COLORS[shade])
+                    || writeFilter.positionChanged(appliedOffsetStep * stepPx, offsetStep * stepPx))) {
+                circle.setFill(fills.get(shade, offsetStep));
+                appliedColor = SHADE_COLORS[shade];
+                appliedOffsetStep = offsetStep;
+            }
+
+            if (blurEffect != null && writeFilter.write(writeFilter.positionChanged(blurEffect.getWidth(), blur))) {
+                blurEffect.setWidth(blur);
+                blurEffect.setHeight(blur);
+            }
+            if (writeFilter.write(writeFilter.scaleChanged(circle.getScaleX(), scale))) {
+                circle.setScaleX(scale);
+                circle.setScaleY(scale);
+            }
+            // Rotation only moves the off-center gradient
+            double rotate = rotation + Math.toDegrees(Math.atan2(gradientY, gradientX));
+            if (writeFilter.write(writeFilter.rotationChanged(circle.getRotate(), rotate, gradientOffset * scale))) {
+                circle.setRotate(rotate);
+            }
 
             // Apply smooth movement
-            circle.setCenterX(baseX + xOffset);
-            circle.setCenterY(baseY + yOffset);
+            double centerX = baseX + xOffset;
+            double centerY = baseY + yOffset;
+            if (writeFilter.write(writeFilter.positionChanged(circle.getCenterX(), centerX))) {
+                circle.setCenterX(centerX);
+            }
+            if (writeFilter.write(writeFilter.positionChanged(circle.getCenterY(), centerY))) {
+                circle.setCenterY(centerY);
+            }
         }
 
         void updateSize(double width, double height) {
@@ -228,8 +248,8 @@ public class AuroraCircles extends Application {
 
     @Override
     public void stop() {
-        if (animationTimeline != null) {
-            animationTimeline.stop();
+        if (animationTimer != null) {
+            animationTimer.stop();
         }
     }
 
@@ -9,21 +9,18 @@ import javafx.scene.layout.Background;
 import javafx.scene.layout.BackgroundFill;
 import javafx.scene.layout.Pane;
 import javafx.scene.paint.Color;
-import javafx.scene.paint.CycleMethod;
 import javafx.scene.paint.RadialGradient;
-import javafx.scene.paint.Stop;
 import javafx.scene.shape.Circle;
 import javafx.stage.Stage;
 
-import java.util.LinkedHashMap;
-import java.util.Map;
-import java.util.Random;
-
 public class AuroraCircles2 extends Application {
 
     private static final int NUM_LAYERS = 6;
     private static final double BASE_OPACITY = 0.7;
-    private static final int MAX_GRADIENT_CACHE = 50;
+    private static final double MIN_BLUR = 80;
+    private static final double MAX_BLUR = 200;
+    private static final double MAX_FPS = 60; // 0 follows the display's refresh rate
+    private static final ResolutionPolicy RESOLUTION = ResolutionPolicy.LOGICAL; // DEVICE draws at the screen's full resolution
 
     private final Color[] COLOR_PALETTE = {
             Color.color(0.125, 0, 0.224),    // Deep purple
@@ -35,18 +32,28 @@ public class AuroraCircles2 extends Application {
     };
 
     private final AuroraLayer[] layers = new AuroraLayer[NUM_LAYERS];
+    private MotionOscillators motion;
     private final BoxBlur sharedBlur = new BoxBlur();
-    private double globalTime = 0;
+    private final FrameClock clock = DeterministicMode.newClock(MAX_FPS);
+    private final GradientCache.Style<RadialGradient> fills = AuroraMath.layerGradients();
+    private OffscreenLayerSurface surface;
+    private ResizeCoalescer resizes;
+    private AnimationTimer animationTimer;
 
     @Override
     public void start(Stage stage) {
         Pane root = createRootPane();
-        initializeLayers(root);
+        // Shown directly unless the screen has more pixels than the policy wants drawn
+        surface = new OffscreenLayerSurface(RenderScale.FULL, root.getBackground());
+        surface.setResolutionPolicy(RESOLUTION);
+        root.getChildren().add(surface.getNode());
+        initializeLayers(surface.getLayers());
         setupAnimation();
 
         Scene scene = new Scene(root, 1280, 720);
         stage.setScene(scene);
         stage.show();
+        new VisibilityThrottle(stage, root, animationTimer, clock);
 
         setupResizeListeners(scene);
         updateLayerSizes(scene.getWidth(), scene.getHeight());
@@ -61,70 +68,56 @@ public class AuroraCircles2 extends Application {
     }
 
     private void initializeLayers(Pane parent) {
-        Random rand = new Random();
+        // The layers' phases are drawn in the same order as before, so a seed gives the same aurora
+        LayerStore store = new LayerStore(NUM_LAYERS, DeterministicMode.newRandom(), COLOR_PALETTE.length,
+                MIN_BLUR, MAX_BLUR);
+        motion = new MotionOscillators(store, COLOR_PALETTE.length);
         for (int i = 0; i < NUM_LAYERS; i++) {
-            layers[i] = new AuroraLayer(parent, i, rand);
+            layers[i] = new AuroraLayer(parent, i);
         }
     }
 
     private void setupAnimation() {
-        AnimationTimer timer = new AnimationTimer() {
-            private long lastUpdate = 0;
-
+        animationTimer = new AnimationTimer() {
             @Override
             public void handle(long now) {
-                if (now - lastUpdate >= 16_000_000) { // 60 FPS
-                    globalTime += 0.016;
+                if (clock.tick(now)) {
                     updateLayers();
-                    lastUpdate = now;
+                    surface.render();
                 }
             }
         };
-        timer.start();
+        animationTimer.start();
     }
 
     private void setupResizeListeners(Scene scene) {
-        scene.widthProperty().addListener((obs, ov, nv) ->
-                updateLayerSizes(nv.doubleValue(), scene.getHeight())
-        );
-        scene.heightProperty().addListener((obs, ov, nv) ->
-                updateLayerSizes(scene.getWidth(), nv.doubleValue())
-        );
+        // A drag only stretches the last frame, the circles are resized once it settles
+        resizes = new ResizeCoalescer(scene.widthProperty(), scene.heightProperty(),
+                surface::stretch, this::updateLayerSizes);
     }
 
     private void updateLayerSizes(double width, double height) {
+        surface.resize(width, height);
         for (AuroraLayer layer : layers) {
             layer.updateSize(width, height);
         }
     }
 
     private void updateLayers() {
+        motion.advance(clock.getStep());
         for (AuroraLayer layer : layers) {
-            layer.update(globalTime);
+            layer.update();
         }
     }
 
     private class AuroraLayer {
         private final Circle circle;
         private final int layerIndex;
-        private final Random rand;
-        private final double[] motionParams;
-        private final LinkedHashMap<ColorPair, RadialGradient> gradientCache =
-                new LinkedHashMap<ColorPair, RadialGradient>(MAX_GRADIENT_CACHE, 0.75f, true) {
-                    @Override
-                    protected boolean removeEldestEntry(Map.Entry eldest) {
-                        return size() > MAX_GRADIENT_CACHE;
-                    }
-                };
-
         private double baseX, baseY;
 
-        AuroraLayer(Pane parent, int index, Random random) {
+        AuroraLayer(Pane parent, int index) {
             this.layerIndex = index;
-            this.rand = random;
-            this.motionParams = new double[4];
             this.circle = createCircle(parent);
-            initializeMotionParams();
         }
 
         private Circle createCircle(Pane parent) {
@@ -136,58 +129,26 @@ public class AuroraCircles2 extends Application {
             return c;
         }
 
-        private void initializeMotionParams() {
-            for (int i = 0; i < motionParams.length; i++) {
-                motionParams[i] = rand.nextDouble() * 2 * Math.PI;
-            }
-        }
-
-        void update(double time) {
-            Color color = calculateColor(time);
-            double xOffset = calculateXOffset(time);
-            double yOffset = calculateYOffset(time);
-            double scale = 0.8 + Math.sin(time * 0.4) * 0.3;
-            double blur = 80 + (120 * (1 - (layerIndex / (double) NUM_LAYERS)));
-
-            updateVisuals(xOffset, yOffset, scale, blur, color);
-        }
-
-        private Color calculateColor(double time) {
-            double colorProgress = (time * 0.15 + layerIndex * 0.2) % COLOR_PALETTE.length;
-            int index1 = (int) colorProgress;
-            int index2 = (index1 + 1) % COLOR_PALETTE.length;
-            double blend = smoothStep(colorProgress - index1);
-
-            return COLOR_PALETTE[index1].interpolate(
-                    COLOR_PALETTE[index2],
-                    blend
-            );
-        }
+        void update() {
+            double colorProgress = motion.colorProgress(layerIndex);
+            double xOffset = motion.xOffset(layerIndex);
+            double yOffset = motion.yOffset(layerIndex);
+            double scale = motion.scale();
+            double blur = AuroraMath.calculateBlur(layerIndex, NUM_LAYERS, MIN_BLUR, MAX_BLUR);
 
-        private double smoothStep(double t) {
-            return t * t * (3 - 2 * t);
-        }
-
-        private double calculateXOffset(double time) {
-            return Math.sin(time * 0.35 + motionParams[0]) * 250
-                    + Math.cos(time * 0.25 + motionParams[1]) * 150;
-        }
-
-        private double calculateYOffset(double time) {
-            return Math.sin(time * 0.3 + motionParams[2]) * 200
-                    + Math.cos(time * 0.4 + motionParams[3]) * 100;
+            updateVisuals(xOffset, yOffset, scale, blur, colorProgress);
         }
 
         private void updateVisuals(double xOffset, double yOffset,
-                                   double scale, double blur, Color color) {
-            RadialGradient gradient = getCachedGradient(
-                    color,
-                    baseX + xOffset * 0.5,
-                    baseY + yOffset * 0.5,
-                    circle.getRadius()
-            );
-
-            circle.setFill(gradient);
+                                   double scale, double blur, double colorProgress) {
+            // The gradient sits halfway between the window's center and the circle's, half the motion
+            // behind the circle. Turning the round circle points that offset, so only its length is in the key
+            double gradientX = -xOffset * 0.5;
+            double gradientY = -yOffset * 0.5;
+            double gradientOffset = Math.hypot(gradientX, gradientY);
+            circle.setFill(fills.get(GradientCache.shade(colorProgress, AuroraMath.GRADIENT_SHADES),
+                    AuroraMath.gradientOffsetStep(gradientOffset, circle.getRadius())));
+            circle.setRotate(Math.toDegrees(Math.atan2(gradientY, gradientX)));
             circle.setScaleX(scale);
             circle.setScaleY(scale);
             circle.setCenterX(baseX + xOffset);
@@ -198,22 +159,6 @@ public class AuroraCircles2 extends Application {
             circle.setEffect(sharedBlur);
         }
 
-        private RadialGradient getCachedGradient(Color color, double x, double y, double radius) {
-            ColorPair key = new ColorPair(color, x, y, radius);
-            return gradientCache.computeIfAbsent(key, k ->
-                    new RadialGradient(
-                            0, 0,
-                            x, y,
-                            radius,
-                            false,
-                            CycleMethod.NO_CYCLE,
-                            new Stop(0, color.deriveColor(0, 1, 1.2, 0.9)),
-                            new Stop(0.7, color.deriveColor(0, 1, 0.8, 0.4)),
-                            new Stop(1, color.deriveColor(0, 1, 0.5, 0.1))
-                    )
-            );
-        }
-
         void updateSize(double width, double height) {
             baseX = width / 2;
             baseY = height / 2;
@@ -222,8 +167,16 @@ public class AuroraCircles2 extends Application {
             circle.setCenterX(baseX);
             circle.setCenterY(baseY);
         }
+    }
 
-        private record ColorPair(Color color, double x, double y, double radius) {}
+    @Override
+    public void stop() {
+        if (animationTimer != null) {
+            animationTimer.stop();
+        }
+        if (resizes != null) {
+            resizes.dispose();
+        }
     }
 
     public static void main(String[] args) {
@@ -2,7 +2,6 @@ package inc.nomard.aurora_demo;
 
 import javafx.animation.AnimationTimer;
 import javafx.application.Application;
-import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.scene.effect.BlendMode;
 import javafx.scene.effect.BoxBlur;
@@ -16,13 +15,7 @@ import javafx.scene.paint.Stop;
 import javafx.scene.shape.Circle;
 import javafx.stage.Stage;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Random;
-import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.stream.Collectors;
 
 public class AuroraCircles3 extends Application {
 
@@ -30,6 +23,9 @@ public class AuroraCircles3 extends Application {
     private static final double MAX_BLUR = 200;
     private static final double MIN_BLUR = 80;
     private static final double BASE_OPACITY = 0.7;
+    private static final double MAX_FPS = 60; // 0 follows the display's refresh rate
+    private static final ResolutionPolicy RESOLUTION = ResolutionPolicy.LOGICAL; // DEVICE draws at the screen's full resolution
+    private static final int COLOR_STEPS = 32; // fill shades per palette color, in the shared gradient cache
     private final BoxBlur sharedBlur = new BoxBlur();
     private final Color[] COLOR_PALETTE = {
             Color.color(0.125, 0, 0.224),    // Deep purple
@@ -40,9 +36,18 @@ public class AuroraCircles3 extends Application {
             Color.rgb(204, 25, 168)          // Neon pink
     };
     private final AuroraLayer[] layers = new AuroraLayer[NUM_LAYERS];
-    private ExecutorService threadPool;
-    private List<Future<LayerState>> layerFutures;
-    private double globalTime = 0;
+    private final GradientCache.Style<RadialGradient> fills =
+            GradientCache.shared().style("center-fade", (shade, column) -> createGradient(shade));
+    private HandoffExecutor worker;
+    private PipelinedStates<LayerState> pipeline;
+    // Seeked by the worker only
+    private MotionOscillators motion;
+    private double seekedTime = Double.NaN;
+    private double requestTime;
+    private OffscreenLayerSurface surface;
+    private ResizeCoalescer resizes;
+    private AnimationTimer animationTimer;
+    private final FrameClock clock = DeterministicMode.newClock(MAX_FPS);
 
     public static void main(String[] args) {
         launch(args);
@@ -51,8 +56,11 @@ public class AuroraCircles3 extends Application {
     @Override
     public void start(Stage stage) {
         Pane root = createRootPane();
-        initializeLayers(root);
-        setupAnimation();
+        // Shown directly unless the screen has more pixels than the policy wants drawn
+        surface = new OffscreenLayerSurface(RenderScale.FULL, root.getBackground());
+        surface.setResolutionPolicy(RESOLUTION);
+        root.getChildren().add(surface.getNode());
+        initializeLayers(surface.getLayers());
 
         Scene scene = new Scene(root, 1280, 720);
         scene.setFill(null);
@@ -64,8 +72,11 @@ public class AuroraCircles3 extends Application {
         updateLayerSizes(scene.getWidth(), scene.getHeight());
         setupResizeListeners(scene);
 
-        threadPool = Executors.newVirtualThreadPerTaskExecutor();
+        worker = new HandoffExecutor("aurora-states");
+        pipeline = new PipelinedStates<>(worker, NUM_LAYERS, LayerState::new,
+                (i, time, state) -> layers[i].calculateNextState(seek(time), state));
         setupAnimation();
+        new VisibilityThrottle(stage, root, animationTimer, clock);
     }
 
     private Pane createRootPane() {
@@ -75,85 +86,87 @@ public class AuroraCircles3 extends Application {
     }
 
     private void initializeLayers(Pane parent) {
-        Random rand = new Random();
+        LayerStore store = new LayerStore(NUM_LAYERS, DeterministicMode.newRandom(), COLOR_PALETTE.length,
+                MIN_BLUR, MAX_BLUR);
+        motion = new MotionOscillators(store, COLOR_PALETTE.length);
         for (int i = 0; i < NUM_LAYERS; i++) {
-            layers[i] = new AuroraLayer(parent, i, rand);
+            layers[i] = new AuroraLayer(parent, i);
         }
     }
 
     private void setupAnimation() {
-        AnimationTimer renderLoop = new AnimationTimer() {
-            private long lastUpdate = 0;
-
+        animationTimer = new AnimationTimer() {
             @Override
             public void handle(long now) {
-                if (now - lastUpdate >= 16_666_667) { // ~60 FPS
-                    try {
-                        // 1. Submit parallel layer calculations
-                        layerFutures = Arrays.stream(layers)
-                                .map(layer -> threadPool.submit(layer::calculateNextState))
-                                .collect(Collectors.toList());
-
-                        // 2. Wait for all calculations (non-blocking pattern)
-                        List<LayerState> states = new ArrayList<>();
-                        for (Future<LayerState> future : layerFutures) {
-                            states.add(future.get(8, TimeUnit.MILLISECONDS));
+                if (clock.tick(now)) {
+                    // Apply whatever the worker has finished, never wait for it
+                    PipelinedStates.Frame<LayerState> frame = pipeline.poll();
+                    if (frame != null) {
+                        for (int i = 0; i < layers.length; i++) {
+                            layers[i].applyState(frame.get(i));
                         }
-
-                        // 3. Batch UI updates on FX thread
-                        Platform.runLater(() -> {
-                            for (int i = 0; i < layers.length; i++) {
-                                layers[i].applyState(states.get(i));
-                            }
-                        });
-
-                        globalTime += 0.016;
-                        lastUpdate = now;
-                    } catch (TimeoutException e) {
-                        System.err.println("Frame skipped due to timeout");
-                    } catch (Exception e) {
-                        e.printStackTrace();
                     }
+
+                    // Compute the next frame while this one is on screen, at a time wrapped by the motion's period
+                    requestTime = (requestTime + clock.getStep()) % MotionOscillators.PERIOD;
+                    pipeline.request(requestTime + clock.getSmoothedDelta());
+                    surface.render();
                 }
             }
         };
-        renderLoop.start();
+        animationTimer.start();
     }
 
     private void setupResizeListeners(Scene scene) {
-        scene.widthProperty().addListener((obs, ov, nv) ->
-                updateLayerSizes(nv.doubleValue(), scene.getHeight())
-        );
-
-        scene.heightProperty().addListener((obs, ov, nv) ->
-                updateLayerSizes(scene.getWidth(), nv.doubleValue())
-        );
-
-        scene.windowProperty().addListener((obs, ov, nv) -> {
-            updateLayerSizes(scene.getWidth(), nv.getWidth());
-            updateLayerSizes(nv.getHeight(), scene.getHeight());
-        });
+        // A drag only stretches the last frame, the circles are resized once it settles
+        resizes = new ResizeCoalescer(scene.widthProperty(), scene.heightProperty(),
+                surface::stretch, this::updateLayerSizes);
     }
 
     private void updateLayerSizes(double width, double height) {
+        surface.resize(width, height);
         for (AuroraLayer layer : layers) {
             layer.updateSize(width, height);
         }
     }
 
-    private void updateLayers() {
-        for (AuroraLayer layer : layers) {
-            layer.update(globalTime);
+    // Every layer of a frame asks for the same time, so the oscillators are seeked once per frame
+    private MotionOscillators seek(double time) {
+        if (time != seekedTime) {
+            motion.setTime(time);
+            seekedTime = time;
         }
+        return motion;
     }
 
     @Override
     public void stop() {
-        threadPool.shutdownNow();
+        if (animationTimer != null) {
+            animationTimer.stop();
+        }
+        worker.close();
+        if (resizes != null) {
+            resizes.dispose();
+        }
+    }
+
+    private RadialGradient createGradient(int shade) {
+        Color color = GradientCache.paletteColor(COLOR_PALETTE, shade, COLOR_STEPS, true);
+        return new RadialGradient(
+                0,                          // focusAngle
+                0,                          // focusDistance
+                0.5,                        // centerX (middle)
+                0.5,                        // centerY (middle)
+                0.5,                        // radius
+                true,                       // proportional
+                CycleMethod.NO_CYCLE,       // cycleMethod
+                new Stop(0, color),         // inner color from state
+                new Stop(1, Color.TRANSPARENT) // fade to transparent
+        );
     }
 
     private static class LayerState {
-        Color color;
+        double colorProgress;
         double xOffset;
         double yOffset;
         double scale;
@@ -163,49 +176,27 @@ public class AuroraCircles3 extends Application {
     private class AuroraLayer {
         private final Circle circle;
         private final int layerIndex;
-        private final Random rand;
-        private final double[] motionParams;
         private final AtomicReference<LayerState> currentState =
                 new AtomicReference<>(new LayerState());
         private double baseX, baseY;
 
-        AuroraLayer(Pane parent, int index, Random random) {
+        AuroraLayer(Pane parent, int index) {
             this.layerIndex = index;
-            this.rand = random;
-            this.motionParams = new double[4];
             this.circle = createCircle(parent);
-            initializeMotionParams();
         }
 
-        public LayerState calculateNextState() {
-            LayerState state = new LayerState();
+        void calculateNextState(MotionOscillators motion, LayerState state) {
             // Perform heavy calculations
-            state.color = calculateColor(globalTime);
-            state.xOffset = calculateXOffset(globalTime);
-            state.yOffset = calculateYOffset(globalTime);
-            state.scale = calculateScale(globalTime);
+            state.colorProgress = motion.colorProgress(layerIndex);
+            state.xOffset = motion.xOffset(layerIndex);
+            state.yOffset = motion.yOffset(layerIndex);
+            state.scale = motion.scale();
             state.blur = calculateBlur();
-            return state;
-        }
-
-        private RadialGradient createGradient(LayerState state) {
-            return new RadialGradient(
-                    0,                          // focusAngle
-                    0,                          // focusDistance
-                    0.5,                        // centerX (middle)
-                    0.5,                        // centerY (middle)
-                    0.5,                        // radius
-                    true,                       // proportional
-                    CycleMethod.NO_CYCLE,       // cycleMethod
-                    new Stop(0, state.color),   // inner color from state
-                    new Stop(1, Color.TRANSPARENT) // fade to transparent
-            );
         }
 
         public void applyState(LayerState state) {
-            // Fast UI updates only
-            RadialGradient gradient = createGradient(state);
-            circle.setFill(gradient);
+            // Fast UI updates only, the fill is cached per quantized shade
+            circle.setFill(fills.get(GradientCache.shade(state.colorProgress, COLOR_STEPS), 0));
             circle.setEffect(sharedBlur);
             circle.setScaleX(state.scale);
             circle.setScaleY(state.scale);
@@ -222,97 +213,11 @@ public class AuroraCircles3 extends Application {
             return c;
         }
 
-        private void initializeMotionParams() {
-            for (int i = 0; i < motionParams.length; i++) {
-                motionParams[i] = rand.nextDouble() * 2 * Math.PI;
-            }
-        }
-
-        void update(double time) {
-            // Smooth color transition
-            Color color = calculateColor(time);
-
-            // Organic motion calculations
-            double xOffset = calculateXOffset(time);
-            double yOffset = calculateYOffset(time);
-            double scale = calculateScale(time);
-            double rotation = calculateRotation(time);
-            double blur = calculateBlur();
-
-            updateVisuals(xOffset, yOffset, scale, rotation, blur, color);
-        }
-
-        private Color calculateColor(double time) {
-            double colorProgress = (time * 0.15 + layerIndex * 0.2) % COLOR_PALETTE.length;
-            int index1 = (int) colorProgress;
-            int index2 = (index1 + 1) % COLOR_PALETTE.length;
-            double blend = colorProgress - index1;
-
-            return interpolateColor(
-                    COLOR_PALETTE[index1],
-                    COLOR_PALETTE[index2],
-                    smoothStep(blend)
-            );
-        }
-
-        private Color interpolateColor(Color c1, Color c2, double t) {
-            return c1.interpolate(c2, t);
-        }
-
-        private double smoothStep(double t) {
-            return t * t * (3 - 2 * t);
-        }
-
-        private double calculateXOffset(double time) {
-            return Math.sin(time * 0.35 + motionParams[0]) * 250
-                    + Math.cos(time * 0.25 + motionParams[1]) * 150;
-        }
-
-        private double calculateYOffset(double time) {
-            return Math.sin(time * 0.3 + motionParams[2]) * 200
-                    + Math.cos(time * 0.4 + motionParams[3]) * 100;
-        }
-
-        private double calculateScale(double time) {
-            return 0.8 + Math.sin(time * 0.4) * 0.3;
-        }
-
-        private double calculateRotation(double time) {
-            return Math.sin(time * 0.2) * 15;
-        }
-
         private double calculateBlur() {
             return MIN_BLUR + (MAX_BLUR - MIN_BLUR) *
                     (1 - (layerIndex / (double) NUM_LAYERS));
         }
 
-        private void updateVisuals(double xOffset, double yOffset,
-                                   double scale, double rotation,
-                                   double blur, Color color) {
-            // Update gradient with dynamic center
-            RadialGradient gradient = new RadialGradient(
-                    0, 0,
-                    circle.getCenterX() + xOffset * 0.5,
-                    circle.getCenterY() + yOffset * 0.5,
-                    circle.getRadius(),
-                    false,
-                    CycleMethod.NO_CYCLE,
-                    new Stop(0, color.deriveColor(0, 1, 1.2, 0.9)),
-                    new Stop(0.7, color.deriveColor(0, 1, 0.8, 0.4)),
-                    new Stop(1, color.deriveColor(0, 1, 0.5, 0.1))
-            );
-
-            circle.setFill(gradient);
-            circle.setEffect(new BoxBlur(blur, blur, 3));
-            circle.setScaleX(scale);
-            circle.setScaleY(scale);
-            circle.setRotate(rotation);
-
-            // Apply smooth movement
-            circle.setCenterX(baseX + xOffset);
-            circle.setCenterY(baseY + yOffset);
-        }
-
         void updateSize(double width, double height) {
             baseX = width / 2;
             baseY = height / 2;
@@ -2,32 +2,24 @@ package inc.nomard.aurora_demo;
 
 import javafx.animation.AnimationTimer;
 import javafx.application.Application;
-import javafx.application.Platform;
 import javafx.scene.CacheHint;
 import javafx.scene.Scene;
 import javafx.scene.effect.BlendMode;
-import javafx.scene.effect.BoxBlur;
+import javafx.scene.image.ImageView;
 import javafx.scene.layout.Background;
 import javafx.scene.layout.BackgroundFill;
 import javafx.scene.layout.Pane;
 import javafx.scene.paint.Color;
-import javafx.scene.paint.CycleMethod;
-import javafx.scene.paint.RadialGradient;
-import javafx.scene.paint.Stop;
-import javafx.scene.shape.Circle;
 import javafx.stage.Stage;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Random;
-import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicReference;
-
 public class AuroraCircles4 extends Application {
 
     private static final int NUM_LAYERS = 6;
     private static final double BASE_OPACITY = 0.7;
-    private static final int FRAME_TIMEOUT_MS = 8;
+    private static final double MIN_BLUR = 80;
+    private static final double MAX_BLUR = 200;
+    private static final double MAX_FPS = 60; // 0 follows the display's refresh rate
+    private static final int BLUR_QUALITY = 3;
 
     private final Color[] COLOR_PALETTE = {
             Color.color(0.125, 0, 0.224),    // Deep purple
@@ -39,9 +31,17 @@ public class AuroraCircles4 extends Application {
     };
 
     private final AuroraLayer[] layers = new AuroraLayer[NUM_LAYERS];
-    private final BoxBlur sharedBlur = new BoxBlur();
-    private final ExecutorService threadPool = Executors.newVirtualThreadPerTaskExecutor();
-    private final AtomicReference<Double> globalTime = new AtomicReference<>(0.0);
+    private final RadialSpriteCache spriteCache = new RadialSpriteCache(COLOR_PALETTE);
+    private final HandoffExecutor worker = new HandoffExecutor("aurora-states");
+    private final PipelinedStates<LayerState> pipeline = new PipelinedStates<>(worker, NUM_LAYERS,
+            LayerState::new, (i, time, state) -> layers[i].computeState(seek(time), state));
+    private final FrameClock clock = DeterministicMode.newClock(MAX_FPS);
+    // Seeked by the worker only
+    private MotionOscillators motion;
+    private double seekedTime = Double.NaN;
+    private double requestTime;
+    private ResizeCoalescer resizes;
+    private double standInScale = 1;
     private AnimationTimer animationTimer;
 
     public static void main(String[] args) {
@@ -59,6 +59,7 @@ public class AuroraCircles4 extends Application {
 
         stage.setScene(scene);
         stage.show();
+        new VisibilityThrottle(stage, root, animationTimer, clock);
 
         setupResizeListeners(scene);
         updateLayerSizes(scene.getWidth(), scene.getHeight());
@@ -75,48 +76,40 @@ public class AuroraCircles4 extends Application {
     }
 
     private void initializeLayers(Pane parent) {
-        Random rand = new Random();
+        LayerStore store = new LayerStore(NUM_LAYERS, DeterministicMode.newRandom(), COLOR_PALETTE.length,
+                MIN_BLUR, MAX_BLUR);
+        motion = new MotionOscillators(store, COLOR_PALETTE.length);
         for (int i = 0; i < NUM_LAYERS; i++) {
-            layers[i] = new AuroraLayer(parent, i, rand);
+            layers[i] = new AuroraLayer(parent, i);
         }
     }
 
+    // The layers of a frame share its time, only the first one moves the oscillators
+    private MotionOscillators seek(double time) {
+        if (time != seekedTime) {
+            motion.setTime(time);
+            seekedTime = time;
+        }
+        return motion;
+    }
+
     private void setupAnimation() {
         animationTimer = new AnimationTimer() {
-            private final List<Future<LayerState>> futures = new ArrayList<>(NUM_LAYERS);
-            private long lastUpdate = 0;
-
             @Override
             public void handle(long now) {
-                if (now - lastUpdate >= 16_666_667) { // ~60 FPS
-                    try {
-                        // Submit parallel layer calculations
-                        futures.clear();
-                        for (AuroraLayer layer : layers) {
-                            futures.add(threadPool.submit(layer.new ComputeTask(globalTime.get())));
+                if (clock.tick(now)) {
+                    // Apply whatever the worker has finished, never wait for it
+                    PipelinedStates.Frame<LayerState> frame = pipeline.poll();
+                    if (frame != null) {
+                        for (int i = 0; i < layers.length; i++) {
+                            layers[i].applyState(frame.get(i));
                         }
-
-                        // Collect results with timeout
-                        List<LayerState> states = new ArrayList<>(NUM_LAYERS);
-                        for (Future<LayerState> future : futures) {
-                            states.add(future.get(FRAME_TIMEOUT_MS, TimeUnit.MILLISECONDS));
-                        }
-
-                        // Batch UI updates
-                        Platform.runLater(() -> {
-                            for (int i = 0; i < layers.length; i++) {
-                                layers[i].applyState(states.get(i));
-                            }
-                        });
-
-                        globalTime.set(globalTime.get() + 0.016);
-                        lastUpdate = now;
-                    } catch (TimeoutException e) {
-                        System.err.println("Frame computation timeout - skipping render");
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                        stop();
                     }
+
+                    // Compute the next frame while this one is on screen. The time wraps with the
+                    // motion's period, so it never grows past where a double keeps sub-microsecond steps
+                    requestTime = (requestTime + clock.getStep()) % MotionOscillators.PERIOD;
+                    pipeline.request(requestTime + clock.getSmoothedDelta());
                 }
             }
         };
@@ -124,15 +117,22 @@ public class AuroraCircles4 extends Application {
     }
 
     private void setupResizeListeners(Scene scene) {
-        scene.widthProperty().addListener((obs, ov, nv) ->
-                updateLayerSizes(nv.doubleValue(), scene.getHeight())
-        );
-        scene.heightProperty().addListener((obs, ov, nv) ->
-                updateLayerSizes(scene.getWidth(), nv.doubleValue())
-        );
+        // The sprites are rebuilt for the new radius only once a drag settles
+        resizes = new ResizeCoalescer(scene.widthProperty(), scene.heightProperty(),
+                this::stretchLayers, this::updateLayerSizes);
     }
 
     private void updateLayerSizes(double width, double height) {
+        spriteCache.setRadius(Math.hypot(width, height) * 0.8);
+        standInScale = 1;
+        for (AuroraLayer layer : layers) {
+            layer.updateSize(width, height);
+        }
+    }
+
+    // Follows the window with the current sprites scaled up or down, their cache stays valid
+    private void stretchLayers(double width, double height) {
+        standInScale = Math.hypot(width, height) * 0.8 / spriteCache.getRadius();
         for (AuroraLayer layer : layers) {
             layer.updateSize(width, height);
         }
@@ -143,11 +143,14 @@ public class AuroraCircles4 extends Application {
         if (animationTimer != null) {
             animationTimer.stop();
         }
-        threadPool.shutdownNow();
+        worker.close();
+        if (resizes != null) {
+            resizes.dispose();
+        }
     }
 
     private static class LayerState {
-        Color color;
+        double colorProgress;
         double xOffset;
         double yOffset;
         double scale;
@@ -155,121 +158,59 @@ public class AuroraCircles4 extends Application {
     }
 
     private class AuroraLayer {
-        private final Circle circle;
+        private final ImageView sprite;
         private final int layerIndex;
-        private final Random rand;
-        private final double[] motionParams;
         private double baseX, baseY;
 
-        AuroraLayer(Pane parent, int index, Random random) {
+        AuroraLayer(Pane parent, int index) {
             this.layerIndex = index;
-            this.rand = random;
-            this.motionParams = new double[4];
-            this.circle = createCircle(parent);
-            initializeMotionParams();
-        }
-
-        private Circle createCircle(Pane parent) {
-            Circle c = new Circle();
-            c.setOpacity(BASE_OPACITY);
-            c.setBlendMode(BlendMode.SCREEN);  // Soft blending
-            c.setCache(true);
-            c.setCacheHint(CacheHint.SPEED);
-            c.setMouseTransparent(true);
-            parent.getChildren().add(c);
-            return c;
+            this.sprite = createSprite(parent);
         }
 
-        private void initializeMotionParams() {
-            for (int i = 0; i < motionParams.length; i++) {
-                motionParams[i] = rand.nextDouble() * 2 * Math.PI;
-            }
-        }
-
-        private Color calculateColor(double time) {
-            double colorProgress = (time * 0.15 + layerIndex * 0.2) % COLOR_PALETTE.length;
-            int index1 = (int) colorProgress;
-            int index2 = (index1 + 1) % COLOR_PALETTE.length;
-            double blend = smoothStep(colorProgress - index1);
-
-            return COLOR_PALETTE[index1].interpolate(
-                    COLOR_PALETTE[index2],
-                    blend
-            );
-        }
-
-        private double smoothStep(double t) {
-            return t * t * (3 - 2 * t);
-        }
-
-        private double calculateXOffset(double time) {
-            return Math.sin(time * 0.35 + motionParams[0]) * 250
-                    + Math.cos(time * 0.25 + motionParams[1]) * 150;
-        }
-
-        private double calculateYOffset(double time) {
-            return Math.sin(time * 0.3 + motionParams[2]) * 200
-                    + Math.cos(time * 0.4 + motionParams[3]) * 100;
-        }
-
-        private double calculateScale(double time) {
-            return 0.8 + Math.sin(time * 0.4) * 0.3;
+        private ImageView createSprite(Pane parent) {
+            ImageView view = new ImageView();
+            view.setOpacity(BASE_OPACITY);
+            view.setBlendMode(BlendMode.SCREEN);  // Soft blending
+            view.setSmooth(true);
+            view.setCache(true);
+            view.setCacheHint(CacheHint.SPEED);
+            view.setMouseTransparent(true);
+            parent.getChildren().add(view);
+            return view;
         }
 
         private double calculateBlur() {
-            return 80 + (120 * (1 - (layerIndex / (double) NUM_LAYERS)));
+            return AuroraMath.calculateBlur(layerIndex, NUM_LAYERS, MIN_BLUR, MAX_BLUR);
         }
 
         void applyState(LayerState state) {
-            RadialGradient gradient = new RadialGradient(
-                    0, 0,
-                    circle.getCenterX() + state.xOffset * 0.5,
-                    circle.getCenterY() + state.yOffset * 0.5,
-                    circle.getRadius(),
-                    false,
-                    CycleMethod.NO_CYCLE,
-                    new Stop(0, state.color.deriveColor(0, 1, 1.2, 0.9)),
-                    new Stop(0.7, state.color.deriveColor(0, 1, 0.8, 0.4)),
-                    new Stop(1, state.color.deriveColor(0, 1, 0.5, 0.1))
-            );
-
-            circle.setFill(gradient);
-            circle.setScaleX(state.scale);
-            circle.setScaleY(state.scale);
-            circle.setCenterX(baseX + state.xOffset);
-            circle.setCenterY(baseY + state.yOffset);
-
-            sharedBlur.setWidth(state.blur);
-            sharedBlur.setHeight(state.blur);
-            circle.setEffect(sharedBlur);
+            // The blurred disc comes pre-rendered, only position, scale, turn, tint and offset change
+            double extent = spriteCache.getExtent(state.blur) * standInScale;
+            // The gradient sits half the motion off center, the sprite is turned to point it there
+            double gradientX = state.xOffset * 0.5;
+            double gradientY = state.yOffset * 0.5;
+            sprite.setImage(spriteCache.getSprite(state.blur, BLUR_QUALITY, state.colorProgress,
+                    Math.hypot(gradientX, gradientY)));
+            sprite.setRotate(Math.toDegrees(Math.atan2(gradientY, gradientX)));
+            sprite.setFitWidth(extent);
+            sprite.setFitHeight(extent);
+            sprite.setScaleX(state.scale);
+            sprite.setScaleY(state.scale);
+            sprite.setTranslateX(baseX + state.xOffset - extent / 2);
+            sprite.setTranslateY(baseY + state.yOffset - extent / 2);
         }
 
         void updateSize(double width, double height) {
             baseX = width / 2;
             baseY = height / 2;
-            double radius = Math.hypot(width, height) * 0.8;
-            circle.setRadius(radius);
-            circle.setCenterX(baseX);
-            circle.setCenterY(baseY);
         }
 
-        class ComputeTask implements Callable<LayerState> {
-            private final double currentTime;
-
-            ComputeTask(double currentTime) {
-                this.currentTime = currentTime;
-            }
-
-            @Override
-            public LayerState call() {
-                LayerState state = new LayerState();
-                state.color = calculateColor(currentTime);
-                state.xOffset = calculateXOffset(currentTime);
-                state.yOffset = calculateYOffset(currentTime);
-                state.scale = calculateScale(currentTime);
-                state.blur = calculateBlur();
-                return state;
-            }
+        void computeState(MotionOscillators motion, LayerState state) {
+            state.colorProgress = motion.colorProgress(layerIndex);
+            state.xOffset = motion.xOffset(layerIndex);
+            state.yOffset = motion.yOffset(layerIndex);
+            state.scale = motion.scale();
+            state.blur = calculateBlur();
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,148 @@
+package inc.nomard.aurora_demo;
+
+import javafx.animation.AnimationTimer;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.scene.image.Image;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One aurora shared by any number of views. A single timer advances one
+ * {@link AuroraSimulation} per pulse and, while an {@link AuroraView} is
+ * attached, rasterizes it once into one image that every view shows and
+ * rescales on its own. Frame listeners get the layer state for renderers
+ * of their own. The engine draws at the largest attached view's size, or
+ * {@link #DEFAULT_WIDTH} x {@link #DEFAULT_HEIGHT} with listeners only, and
+ * stops its timer while nothing is attached, so a view costs an
+ * {@code ImageView} and views can come and go at any time. The pixels per
+ * unit follow the highest output scale among the views' windows through
+ * the {@link ResolutionPolicy}. Use from the FX thread.
+ */
+public final class AuroraEngine implements AutoCloseable {
+
+    public interface FrameListener {
+        void onFrame(LayerFrame frame);
+    }
+
+    public static final double DEFAULT_WIDTH = 1280;
+    public static final double DEFAULT_HEIGHT = 720;
+
+    private final AuroraSimulation simulation;
+    private final TiledRasterizer rasterizer = new TiledRasterizer();
+    private final AuroraSurface surface = new AuroraSurface();
+    private final FrameClock clock;
+    private final List<AuroraView> views = new ArrayList<>();
+    private final List<FrameListener> listeners = new ArrayList<>();
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            pulse(now);
+        }
+    };
+    private boolean running;
+    private double width = DEFAULT_WIDTH;
+    private double height = DEFAULT_HEIGHT;
+    private long frames;
+
+    public AuroraEngine(int layerCount, RenderScale renderScale, double maxFps) {
+        this.simulation = new AuroraSimulation(layerCount);
+        this.clock = DeterministicMode.newClock(maxFps);
+        surface.setRenderScale(renderScale);
+    }
+
+    // The shared frame, replaced when the engine's size changes
+    public ReadOnlyObjectProperty<Image> imageProperty() {
+        return surface.imageProperty();
+    }
+
+    public void setResolutionPolicy(ResolutionPolicy resolutionPolicy) {
+        surface.setResolutionPolicy(resolutionPolicy);
+    }
+
+    // A new view showing this engine, attached while its window is showing
+    public AuroraView createView() {
+        return new AuroraView(this);
+    }
+
+    public void addFrameListener(FrameListener listener) {
+        listeners.add(listener);
+        updateRunning();
+    }
+
+    public void removeFrameListener(FrameListener listener) {
+        listeners.remove(listener);
+        updateRunning();
+    }
+
+    void attach(AuroraView view) {
+        if (!views.contains(view)) {
+            views.add(view);
+            updateSize();
+            updateRunning();
+        }
+    }
+
+    void detach(AuroraView view) {
+        if (views.remove(view)) {
+            updateSize();
+            updateRunning();
+        }
+    }
+
+    // The largest view sets the size, the others crop and scale down from it
+    void updateSize() {
+        double w = 0;
+        double h = 0;
+        double outputScale = 1;
+        for (AuroraView view : views) {
+            w = Math.max(w, view.getWidth());
+            h = Math.max(h, view.getHeight());
+            outputScale = Math.max(outputScale, view.getOutputScale());
+        }
+        width = w > 0 ? w : DEFAULT_WIDTH;
+        height = h > 0 ? h : DEFAULT_HEIGHT;
+        surface.resize(width, height, outputScale);
+    }
+
+    private void updateRunning() {
+        boolean needed = !views.isEmpty() || !listeners.isEmpty();
+        if (needed && !running) {
+            clock.reset();
+            timer.start();
+        } else if (!needed && running) {
+            timer.stop();
+        }
+        running = needed;
+    }
+
+    private void pulse(long now) {
+        if (!clock.tick(now)) {
+            return;
+        }
+        LayerFrame frame = simulation.advance(clock.getStep(), width, height);
+        if (!views.isEmpty()) {
+            surface.render(frame, rasterizer);
+        }
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).onFrame(frame);
+        }
+        frames++;
+    }
+
+    public int getViewCount() {
+        return views.size();
+    }
+
+    // Frames computed and rasterized, once each whatever the number of views
+    public long getFrameCount() {
+        return frames;
+    }
+
+    @Override
+    public void close() {
+        timer.stop();
+        running = false;
+        rasterizer.close();
+    }
+}
@@ -0,0 +1,142 @@
+package inc.nomard.aurora_demo;
+
+import javafx.scene.paint.Color;
+import javafx.scene.paint.CycleMethod;
+import javafx.scene.paint.RadialGradient;
+import javafx.scene.paint.Stop;
+
+/**
+ * The layer math shared by the node based variants, lifted out of
+ * {@code AuroraCircles.AuroraLayer} so that software renderers can use it
+ * on packed ARGB colors instead of {@link Color} instances.
+ */
+final class AuroraMath {
+
+    static final Color[] COLOR_PALETTE = {
+            Color.color(0.125, 0, 0.224),    // Deep purple
+            Color.rgb(64, 13, 103),          // Royal purple
+            Color.color(0.337, 0, 0.6),      // Electric purple
+            Color.color(0.565, 0, 1),        // Vivid violet
+            Color.color(1, 0, 0.902),        // Hot pink
+            Color.rgb(204, 25, 168)          // Neon pink
+    };
+
+    static final int[] PALETTE_ARGB = toArgb(COLOR_PALETTE);
+
+    // Quantization of the layer gradients in the shared cache
+    static final int GRADIENT_SHADES = 32; // per palette color
+    static final int GRADIENT_OFFSET_STEPS = 256; // per circle radius
+
+    private AuroraMath() {
+    }
+
+    static int[] toArgb(Color[] colors) {
+        int[] argb = new int[colors.length];
+        for (int i = 0; i < colors.length; i++) {
+            argb[i] = toArgb(colors[i]);
+        }
+        return argb;
+    }
+
+    static int toArgb(Color color) {
+        return pack(color.getOpacity(), color.getRed(), color.getGreen(), color.getBlue());
+    }
+
+    static int pack(double a, double r, double g, double b) {
+        return (channel(a) << 24) | (channel(r) << 16) | (channel(g) << 8) | channel(b);
+    }
+
+    private static int channel(double value) {
+        return (int) Math.round(Math.max(0, Math.min(1, value)) * 255);
+    }
+
+    static int premultiply(int argb) {
+        int a = argb >>> 24;
+        if (a == 0xFF) {
+            return argb;
+        }
+        int r = ((argb >> 16) & 0xFF) * a / 255;
+        int g = ((argb >> 8) & 0xFF) * a / 255;
+        int b = (argb & 0xFF) * a / 255;
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+
+    static double smoothStep(double t) {
+        return t * t * (3 - 2 * t);
+    }
+
+    static double colorProgress(double time, int layerIndex, int paletteSize) {
+        return (time * 0.15 + layerIndex * 0.2) % paletteSize;
+    }
+
+    static int calculateColor(double time, int layerIndex, int[] palette) {
+        return colorAt(colorProgress(time, layerIndex, palette.length), palette);
+    }
+
+    static int colorAt(double colorProgress, int[] palette) {
+        int index1 = (int) colorProgress;
+        int index2 = (index1 + 1) % palette.length;
+        double blend = colorProgress - index1;
+
+        return interpolate(palette[index1], palette[index2], smoothStep(blend));
+    }
+
+    // The circle layers' gradients, shared by every variant that draws them
+    static GradientCache.Style<RadialGradient> layerGradients() {
+        return GradientCache.shared().style("layer-radial", AuroraMath::createLayerGradient);
+    }
+
+    // A layer's gradient on a proportional circle, its center offset along x by offsetStep / GRADIENT_OFFSET_STEPS radii
+    private static RadialGradient createLayerGradient(int shade, int offsetStep) {
+        Color color = GradientCache.paletteColor(COLOR_PALETTE, shade, GRADIENT_SHADES, true);
+        return new RadialGradient(
+                0, 0,
+                0.5 + offsetStep * 0.5 / GRADIENT_OFFSET_STEPS,
+                0.5,
+                0.5,
+                true,
+                CycleMethod.NO_CYCLE,
+                new Stop(0, color.deriveColor(0, 1, 1.2, 0.9)),
+                new Stop(0.7, color.deriveColor(0, 1, 0.8, 0.4)),
+                new Stop(1, color.deriveColor(0, 1, 0.5, 0.1))
+        );
+    }
+
+    // The offset step of a gradient center offset by length on a circle of radius
+    static int gradientOffsetStep(double length, double radius) {
+        return (int) Math.min(GRADIENT_OFFSET_STEPS, Math.round(length / radius * GRADIENT_OFFSET_STEPS));
+    }
+
+    static double calculateBlur(int layerIndex, int layerCount, double minBlur, double maxBlur) {
+        return minBlur + (maxBlur - minBlur) *
+                (1 - (layerIndex / (double) layerCount));
+    }
+
+    // Same result as Color.interpolate, on packed non-premultiplied ARGB
+    static int interpolate(int c1, int c2, double t) {
+        int a = lerp(c1 >>> 24, c2 >>> 24, t);
+        int r = lerp((c1 >> 16) & 0xFF, (c2 >> 16) & 0xFF, t);
+        int g = lerp((c1 >> 8) & 0xFF, (c2 >> 8) & 0xFF, t);
+        int b = lerp(c1 & 0xFF, c2 & 0xFF, t);
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+
+    private static int lerp(int from, int to, double t) {
+        return (int) Math.round(from + (to - from) * t);
+    }
+
+    // Same result as Color.deriveColor(0, 1, brightness, opacity): scaling the HSB
+    // brightness keeps hue and saturation, so it scales RGB until the largest channel saturates
+    static int derive(int argb, double brightness, double opacity) {
+        int r = (argb >> 16) & 0xFF;
+        int g = (argb >> 8) & 0xFF;
+        int b = argb & 0xFF;
+        int max = Math.max(r, Math.max(g, b));
+        double factor = max == 0 ? 0 : Math.min(brightness, 255.0 / max);
+        int a = (int) Math.round((argb >>> 24) * Math.min(1, opacity));
+        return (a << 24)
+                | ((int) Math.round(r * factor) << 16)
+                | ((int) Math.round(g * factor) << 8)
+                | (int) Math.round(b * factor);
+    }
+}
@@ -0,0 +1,361 @@
+package inc.nomard.aurora_demo;
+
+import javafx.animation.AnimationTimer;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.css.CssMetaData;
+import javafx.css.SimpleStyleableIntegerProperty;
+import javafx.css.SimpleStyleableObjectProperty;
+import javafx.css.StyleConverter;
+import javafx.css.Styleable;
+import javafx.css.StyleableIntegerProperty;
+import javafx.css.StyleableObjectProperty;
+import javafx.css.StyleableProperty;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.CycleMethod;
+import javafx.scene.paint.LinearGradient;
+import javafx.scene.paint.Paint;
+import javafx.scene.paint.RadialGradient;
+import javafx.scene.paint.Stop;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An aurora to put into any layout. It animates only while it and all of
+ * its ancestors are visible in a showing window that isn't iconified: the
+ * simulation, the tile rasterizer's worker threads, the pixel buffers and
+ * the timer are created the first time it is shown, and everything but the
+ * small simulation state is released again when it is hidden, minimized or
+ * removed, so the motion resumes where it stopped. It fills whatever size
+ * it is given and has no preferred size of its own.
+ *
+ * <p>Styleable from CSS with the style class {@code aurora-pane}:
+ * <pre>
+ * .aurora-pane {
+ *     -aurora-palette: linear-gradient(#200039, #5600a0, #ff00e6);
+ *     -aurora-layer-count: 8;
+ *     -aurora-quality: medium;
+ * }
+ * </pre>
+ * The palette is a color, or a gradient whose stop colors, in order, are
+ * the colors the layers cycle through. The quality level sets the render
+ * scale, blur width and frame rate, and draws its share of the layer count.
+ */
+public class AuroraPane extends Region {
+
+    private static final String STYLE_CLASS = "aurora-pane";
+    private static final int DEFAULT_LAYER_COUNT = 6;
+    private static final QualityLevel DEFAULT_QUALITY = QualityLevel.HIGH;
+    private static final Paint DEFAULT_PALETTE = toPaint(AuroraMath.COLOR_PALETTE);
+
+    private static final CssMetaData<AuroraPane, Paint> PALETTE =
+            new CssMetaData<>("-aurora-palette", StyleConverter.getPaintConverter(), DEFAULT_PALETTE) {
+                @Override
+                public boolean isSettable(AuroraPane pane) {
+                    return !pane.palette.isBound();
+                }
+
+                @Override
+                public StyleableProperty<Paint> getStyleableProperty(AuroraPane pane) {
+                    return pane.palette;
+                }
+            };
+
+    private static final CssMetaData<AuroraPane, Number> LAYER_COUNT =
+            new CssMetaData<>("-aurora-layer-count", StyleConverter.getSizeConverter(), DEFAULT_LAYER_COUNT) {
+                @Override
+                public boolean isSettable(AuroraPane pane) {
+                    return !pane.layerCount.isBound();
+                }
+
+                @Override
+                public StyleableProperty<Number> getStyleableProperty(AuroraPane pane) {
+                    return pane.layerCount;
+                }
+            };
+
+    private static final CssMetaData<AuroraPane, QualityLevel> QUALITY =
+            new CssMetaData<>("-aurora-quality", StyleConverter.getEnumConverter(QualityLevel.class), DEFAULT_QUALITY) {
+                @Override
+                public boolean isSettable(AuroraPane pane) {
+                    return !pane.quality.isBound();
+                }
+
+                @Override
+                public StyleableProperty<QualityLevel> getStyleableProperty(AuroraPane pane) {
+                    return pane.quality;
+                }
+            };
+
+    private static final List<CssMetaData<? extends Styleable, ?>> STYLEABLES;
+
+    static {
+        List<CssMetaData<? extends Styleable, ?>> styleables = new ArrayList<>(Region.getClassCssMetaData());
+        styleables.add(PALETTE);
+        styleables.add(LAYER_COUNT);
+        styleables.add(QUALITY);
+        STYLEABLES = Collections.unmodifiableList(styleables);
+    }
+
+    private final StyleableObjectProperty<Paint> palette =
+            new SimpleStyleableObjectProperty<>(PALETTE, this, "palette", DEFAULT_PALETTE);
+    private final StyleableIntegerProperty layerCount =
+            new SimpleStyleableIntegerProperty(LAYER_COUNT, this, "layerCount", DEFAULT_LAYER_COUNT);
+    private final StyleableObjectProperty<QualityLevel> quality =
+            new SimpleStyleableObjectProperty<>(QUALITY, this, "quality", DEFAULT_QUALITY);
+    private final ObservableValue<Boolean> showing = sceneProperty()
+            .flatMap(Scene::windowProperty)
+            .flatMap(Window::showingProperty)
+            .orElse(false);
+    // Only stages can be iconified, other windows never are
+    private final ObservableValue<Boolean> iconified = sceneProperty()
+            .flatMap(Scene::windowProperty)
+            .flatMap(window -> window instanceof Stage stage ? stage.iconifiedProperty() : null)
+            .orElse(false);
+    // Hooked to this pane and every ancestor, a parent change hooks the new chain
+    private final ChangeListener<Object> ancestorsChanged = (obs, ov, nv) -> {
+        watchAncestors();
+        updateRunning();
+    };
+    private final List<Node> watched = new ArrayList<>();
+    private final FrameClock clock = DeterministicMode.newClock(DEFAULT_QUALITY.getMaxFps());
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            pulse(now);
+        }
+    };
+    private final ResizeCoalescer resizes;
+    // Only while running
+    private AuroraSurface surface;
+    private TiledRasterizer rasterizer;
+    // Kept while hidden, dropped when the palette or layer count changes
+    private AuroraSimulation simulation;
+    private boolean running;
+    private boolean sized;
+    private int starts;
+
+    public AuroraPane() {
+        getStyleClass().add(STYLE_CLASS);
+        setMinSize(0, 0);
+
+        showing.addListener((obs, ov, nv) -> updateRunning());
+        iconified.addListener((obs, ov, nv) -> updateRunning());
+        watchAncestors();
+        palette.addListener((obs, ov, nv) -> simulation = null);
+        layerCount.addListener((obs, ov, nv) -> simulation = null);
+        quality.addListener((obs, ov, nv) -> applyQuality());
+        // A drag stretches the last frame, the buffers follow once it settles
+        resizes = new ResizeCoalescer(widthProperty(), heightProperty(), this::stretchSurface, this::resizeSurface);
+    }
+
+    public ObjectProperty<Paint> paletteProperty() {
+        return palette;
+    }
+
+    public Paint getPalette() {
+        return palette.get();
+    }
+
+    public void setPalette(Paint palette) {
+        this.palette.set(palette);
+    }
+
+    // Cycles through colors, in order
+    public void setPaletteColors(Color... colors) {
+        setPalette(toPaint(colors));
+    }
+
+    public IntegerProperty layerCountProperty() {
+        return layerCount;
+    }
+
+    public int getLayerCount() {
+        return layerCount.get();
+    }
+
+    public void setLayerCount(int layerCount) {
+        this.layerCount.set(layerCount);
+    }
+
+    public ObjectProperty<QualityLevel> qualityProperty() {
+        return quality;
+    }
+
+    public QualityLevel getQuality() {
+        return quality.get();
+    }
+
+    public void setQuality(QualityLevel quality) {
+        this.quality.set(quality);
+    }
+
+    // True while it animates
+    public boolean isRunning() {
+        return running;
+    }
+
+    // How often it was started, once per time it came on screen
+    public int getStarts() {
+        return starts;
+    }
+
+    private void watchAncestors() {
+        for (Node node : watched) {
+            node.parentProperty().removeListener(ancestorsChanged);
+            node.visibleProperty().removeListener(ancestorsChanged);
+        }
+        watched.clear();
+        for (Node node = this; node != null; node = node.getParent()) {
+            node.parentProperty().addListener(ancestorsChanged);
+            node.visibleProperty().addListener(ancestorsChanged);
+            watched.add(node);
+        }
+    }
+
+    // Invisible as soon as this pane or any ancestor is
+    private boolean isTreeVisible() {
+        for (Node node = this; node != null; node = node.getParent()) {
+            if (!node.isVisible()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void updateRunning() {
+        boolean needed = showing.getValue() && !iconified.getValue() && isTreeVisible();
+        if (needed && !running) {
+            start();
+        } else if (!needed && running) {
+            stop();
+        }
+    }
+
+    private void start() {
+        running = true;
+        starts++;
+        rasterizer = new TiledRasterizer();
+        surface = new AuroraSurface();
+        surface.getView().setManaged(false);
+        getChildren().setAll(surface.getView());
+        applyQuality();
+        resizeSurface(getWidth(), getHeight());
+        clock.reset();
+        timer.start();
+    }
+
+    // Lets go of the worker threads and pixel buffers, the simulation stays for the next start
+    private void stop() {
+        running = false;
+        timer.stop();
+        getChildren().clear();
+        surface = null;
+        rasterizer.close();
+        rasterizer = null;
+    }
+
+    private void pulse(long now) {
+        if (!clock.tick(now)) {
+            return;
+        }
+        if (simulation == null) {
+            simulation = new AuroraSimulation(Math.max(1, getLayerCount()), paletteColors(getPalette()));
+            applyQuality();
+        }
+        surface.render(simulation.advance(clock.getStep(), getWidth(), getHeight()), rasterizer);
+    }
+
+    private void applyQuality() {
+        QualityLevel level = getQuality() != null ? getQuality() : DEFAULT_QUALITY;
+        clock.setMaxFps(level.getMaxFps());
+        if (surface != null) {
+            surface.setRenderScale(level.getRenderScale());
+        }
+        if (simulation != null) {
+            // The level's layer count is out of the best level's, the pane draws the same share of its own
+            simulation.setActiveLayers((int) Math.round(simulation.getLayerCount()
+                    * level.getLayerCount() / (double) QualityLevel.ULTRA.getLayerCount()));
+            simulation.setBlurScale(level.getBlurScale());
+        }
+    }
+
+    private void stretchSurface(double width, double height) {
+        if (surface == null) {
+            return;
+        }
+        // Nothing to stretch before the first layout, size the buffers right away
+        if (sized) {
+            surface.stretch(width, height);
+        } else {
+            resizeSurface(width, height);
+        }
+    }
+
+    private void resizeSurface(double width, double height) {
+        if (surface != null) {
+            surface.resize(width, height);
+            sized = width > 0 && height > 0;
+        }
+    }
+
+    // A gradient's stop colors in order, a single color, or the default colors for any other paint
+    static Color[] paletteColors(Paint paint) {
+        List<Stop> stops = null;
+        if (paint instanceof Color color) {
+            return new Color[]{color};
+        } else if (paint instanceof LinearGradient gradient) {
+            stops = gradient.getStops();
+        } else if (paint instanceof RadialGradient gradient) {
+            stops = gradient.getStops();
+        }
+        if (stops == null || stops.isEmpty()) {
+            return AuroraMath.COLOR_PALETTE.clone();
+        }
+        Color[] colors = new Color[stops.size()];
+        for (int i = 0; i < colors.length; i++) {
+            colors[i] = stops.get(i).getColor();
+        }
+        return colors;
+    }
+
+    private static Paint toPaint(Color[] colors) {
+        if (colors.length == 1) {
+            return colors[0];
+        }
+        Stop[] stops = new Stop[colors.length];
+        for (int i = 0; i < colors.length; i++) {
+            stops[i] = new Stop(i / (double) (colors.length - 1), colors[i]);
+        }
+        return new LinearGradient(0, 0, 1, 0, true, CycleMethod.NO_CYCLE, stops);
+    }
+
+    // Fills whatever it is given, the aurora has no size of its own
+    @Override
+    protected double computePrefWidth(double height) {
+        return 0;
+    }
+
+    @Override
+    protected double computePrefHeight(double width) {
+        return 0;
+    }
+
+    public static List<CssMetaData<? extends Styleable, ?>> getClassCssMetaData() {
+        return STYLEABLES;
+    }
+
+    @Override
+    public List<CssMetaData<? extends Styleable, ?>> getCssMetaData() {
+        return getClassCssMetaData();
+    }
+}
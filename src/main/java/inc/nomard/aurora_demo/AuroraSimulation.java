@@ -0,0 +1,152 @@
+package inc.nomard.aurora_demo;
+
+import javafx.scene.paint.Color;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Computes the {@link LayerFrame} of the {@code AuroraCircles} motion for a
+ * given time and scene size, without touching the scene graph. The motion
+ * runs on {@link MotionOscillators}, long running renderers should
+ * {@link #advance} it rather than pass an ever growing time to
+ * {@link #update}. The layers live in a {@link LayerStore} and a frame is
+ * computed in loops over its columns, with the layer colors and gradient
+ * stops looked up from a table of quantized shades of the palette cycle.
+ */
+public class AuroraSimulation {
+
+    private static final double MAX_BLUR = 200;
+    private static final double MIN_BLUR = 80;
+    private static final int COLOR_SHADES = 1024; // per palette entry, within a level or two of the exact blend
+
+    // Color and stops of every shade of the default palette, built once
+    private static final LayerFrame DEFAULT_SHADES = createShades(AuroraMath.PALETTE_ARGB);
+
+    private final LayerFrame shades;
+    private final LayerStore layers;
+    private final LayerFrame frame;
+    private final MotionOscillators motion;
+    private final double[] colorProgress;
+    private int activeLayers;
+    private double blurScale = 1;
+
+    public AuroraSimulation(int layerCount) {
+        this(layerCount, DeterministicMode.newRandom());
+    }
+
+    public AuroraSimulation(int layerCount, long seed) {
+        this(layerCount, new Random(seed));
+    }
+
+    // Cycles through palette instead of the default colors
+    public AuroraSimulation(int layerCount, Color[] palette) {
+        this(layerCount, DeterministicMode.newRandom(), AuroraMath.toArgb(palette));
+    }
+
+    AuroraSimulation(int layerCount, Random rand) {
+        this(layerCount, rand, AuroraMath.PALETTE_ARGB);
+    }
+
+    private AuroraSimulation(int layerCount, Random rand, int[] palette) {
+        if (palette.length == 0) {
+            throw new IllegalArgumentException("The palette needs at least one color");
+        }
+        this.shades = Arrays.equals(palette, AuroraMath.PALETTE_ARGB) ? DEFAULT_SHADES : createShades(palette);
+        this.layers = new LayerStore(layerCount, rand, palette.length, MIN_BLUR, MAX_BLUR);
+        this.frame = new LayerFrame(layerCount);
+        this.activeLayers = layerCount;
+        this.motion = new MotionOscillators(layers, palette.length);
+        this.colorProgress = new double[layerCount];
+    }
+
+    // One shade past the cycle, equal to the first, so rounding up at the end needs no wrap
+    private static LayerFrame createShades(int[] palette) {
+        LayerFrame shades = new LayerFrame(palette.length * COLOR_SHADES + 1);
+        for (int s = 0; s < shades.count - 1; s++) {
+            shades.setColor(s, AuroraMath.colorAt(s / (double) COLOR_SHADES, palette));
+        }
+        shades.setColor(shades.count - 1, palette[0]);
+        return shades;
+    }
+
+    // Seeks the motion to time, for frames that must land on an exact time
+    public LayerFrame update(double time, double width, double height) {
+        motion.setTime(time);
+        return compute(width, height);
+    }
+
+    // Moves the motion on by dt seconds
+    public LayerFrame advance(double dt, double width, double height) {
+        motion.advance(dt);
+        return compute(width, height);
+    }
+
+    private LayerFrame compute(double width, double height) {
+        double baseX = width / 2;
+        double baseY = height / 2;
+        double baseRadius = Math.hypot(width, height) * 0.8;
+        double scale = motion.scale();
+        double rotation = Math.toRadians(motion.rotation());
+        // The node variants offset the gradient by half the motion, then scale
+        // and rotate it together with the circle around the circle's center
+        double gradientCos = Math.cos(rotation) * 0.5 * scale;
+        double gradientSin = Math.sin(rotation) * 0.5 * scale;
+        int count = activeLayers;
+        double[] centerX = frame.centerX, centerY = frame.centerY;
+        double[] gradientX = frame.gradientX, gradientY = frame.gradientY;
+
+        frame.count = count;
+        // The offsets land in the center columns and are moved to the base in place
+        motion.offsets(count, centerX, centerY);
+        for (int i = 0; i < count; i++) {
+            double xOffset = centerX[i];
+            double yOffset = centerY[i];
+            centerX[i] = baseX + xOffset;
+            centerY[i] = baseY + yOffset;
+            gradientX[i] = centerX[i] + xOffset * gradientCos - yOffset * gradientSin;
+            gradientY[i] = centerY[i] + xOffset * gradientSin + yOffset * gradientCos;
+        }
+        Arrays.fill(frame.radius, 0, count, baseRadius * scale);
+        double[] blur = frame.blur, baseBlur = layers.blur;
+        for (int i = 0; i < count; i++) {
+            blur[i] = baseBlur[i] * blurScale;
+        }
+
+        motion.colorProgress(count, colorProgress);
+        for (int i = 0; i < count; i++) {
+            int shade = (int) (colorProgress[i] * COLOR_SHADES + 0.5);
+            frame.color[i] = shades.color[shade];
+            frame.innerStop[i] = shades.innerStop[shade];
+            frame.midStop[i] = shades.midStop[shade];
+            frame.outerStop[i] = shades.outerStop[shade];
+        }
+        return frame;
+    }
+
+    public LayerFrame getFrame() {
+        return frame;
+    }
+
+    public int getLayerCount() {
+        return layers.size;
+    }
+
+    public LayerStore getLayers() {
+        return layers;
+    }
+
+    // Draws only the first layers, the others keep their motion for when they come back
+    public void setActiveLayers(int activeLayers) {
+        this.activeLayers = Math.max(1, Math.min(layers.size, activeLayers));
+    }
+
+    public int getActiveLayers() {
+        return activeLayers;
+    }
+
+    // Multiplies every layer's blur radius
+    public void setBlurScale(double blurScale) {
+        this.blurScale = blurScale;
+    }
+}
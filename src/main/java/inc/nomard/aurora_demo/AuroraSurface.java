@@ -0,0 +1,157 @@
+package inc.nomard.aurora_demo;
+
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelBuffer;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * A single {@link ImageView} backed by a {@link PixelBuffer}. The whole
+ * aurora is rasterized into an int array and copied into the buffer once
+ * per frame, so the scene graph holds one node without effects. The buffer
+ * can be a fraction of the scene size, the view upscales it bilinearly.
+ * Its resolution follows the {@link ResolutionPolicy} on the output scale
+ * of the view's window, and changes when the window moves to another
+ * monitor. A surface whose view isn't shown is given the scale through
+ * {@link #setOutputScale}.
+ */
+public class AuroraSurface {
+
+    private final ImageView view = new ImageView();
+    private final ObservableValue<Number> windowScale = OutputScale.of(view);
+    private RenderScale renderScale = RenderScale.FULL;
+    private ResolutionPolicy resolutionPolicy = ResolutionPolicy.LOGICAL;
+    private double outputScale = 1;
+    private double width;
+    private double height;
+    private int[] pixels = new int[0];
+    private PixelBuffer<IntBuffer> pixelBuffer;
+    private int pixelWidth;
+    private int pixelHeight;
+    private final RunningSumBlur postBlur = new RunningSumBlur();
+    private double postBlurRadius;
+    private int postBlurPasses = 3;
+
+    public AuroraSurface() {
+        view.setMouseTransparent(true);
+        view.setPreserveRatio(false);
+        view.setSmooth(true);
+        windowScale.addListener((obs, ov, nv) -> setOutputScale(nv.doubleValue()));
+    }
+
+    public ImageView getView() {
+        return view;
+    }
+
+    // The image the view shows, replaced on resize, for more views of the same frames
+    public ReadOnlyObjectProperty<Image> imageProperty() {
+        return view.imageProperty();
+    }
+
+    public RenderScale getRenderScale() {
+        return renderScale;
+    }
+
+    public void setRenderScale(RenderScale renderScale) {
+        this.renderScale = renderScale;
+        resize(width, height);
+    }
+
+    public ResolutionPolicy getResolutionPolicy() {
+        return resolutionPolicy;
+    }
+
+    public void setResolutionPolicy(ResolutionPolicy resolutionPolicy) {
+        this.resolutionPolicy = resolutionPolicy;
+        resize(width, height);
+    }
+
+    public double getOutputScale() {
+        return outputScale;
+    }
+
+    public void setOutputScale(double outputScale) {
+        if (outputScale != this.outputScale) {
+            resize(width, height, outputScale);
+        }
+    }
+
+    // Surface pixels per scene unit
+    public double getPixelScale() {
+        return renderScale.getFactor() * resolutionPolicy.pixelsPerUnit(outputScale);
+    }
+
+    // Optional full-frame blur after rasterizing, radius in scene pixels
+    public void setPostBlur(double radius, int passes) {
+        this.postBlurRadius = radius;
+        this.postBlurPasses = passes;
+    }
+
+    // A new size and output scale together, so moving to another monitor reallocates at most once
+    public void resize(double width, double height, double outputScale) {
+        this.outputScale = outputScale;
+        resize(width, height);
+    }
+
+    public void resize(double width, double height) {
+        this.width = width;
+        this.height = height;
+        view.setFitWidth(width);
+        view.setFitHeight(height);
+
+        double pixelsPerUnit = resolutionPolicy.pixelsPerUnit(outputScale);
+        int w = renderScale.scaledSize(width, pixelsPerUnit);
+        int h = renderScale.scaledSize(height, pixelsPerUnit);
+        if (w == pixelWidth && h == pixelHeight) {
+            return;
+        }
+
+        pixelWidth = w;
+        pixelHeight = h;
+        pixels = new int[w * h];
+        IntBuffer buffer = ByteBuffer.allocateDirect(w * h * Integer.BYTES)
+                .order(ByteOrder.nativeOrder())
+                .asIntBuffer();
+        pixelBuffer = new PixelBuffer<>(w, h, buffer, PixelFormat.getIntArgbPreInstance());
+        view.setImage(new WritableImage(pixelBuffer));
+    }
+
+    // Cheap stand-in during a window drag: the current image scaled to width x height, resize() rebuilds
+    public void stretch(double width, double height) {
+        view.setFitWidth(width);
+        view.setFitHeight(height);
+    }
+
+    public void render(LayerFrame frame, PixelRasterizer rasterizer) {
+        if (pixelBuffer == null) {
+            return;
+        }
+        rasterizer.render(frame, pixels, pixelWidth, pixelHeight, getPixelScale());
+        publish();
+    }
+
+    public void render(ParticleField particles, ParticleSplatter splatter) {
+        if (pixelBuffer == null) {
+            return;
+        }
+        splatter.render(particles, pixels, pixelWidth, pixelHeight, getPixelScale());
+        publish();
+    }
+
+    // Post blur, then hand the pixels to the image
+    private void publish() {
+        if (postBlurRadius > 0) {
+            postBlur.blur(pixels, pixelWidth, pixelHeight,
+                    postBlurRadius * getPixelScale(), postBlurPasses, RunningSumBlur.Edges.CLAMP);
+        }
+        pixelBuffer.getBuffer().put(0, pixels);
+        pixelBuffer.updateBuffer(b -> null);
+    }
+}
@@ -0,0 +1,97 @@
+package inc.nomard.aurora_demo;
+
+import javafx.beans.value.ObservableValue;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.Scene;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.Region;
+import javafx.stage.Window;
+
+/**
+ * A view of an {@link AuroraEngine}'s shared frame. It holds one
+ * {@link ImageView} bound to the engine's image and attaches itself to the
+ * engine while it is in a showing window. The frame is cropped around its center to
+ * the view's aspect ratio and scaled to fill the view, so views of any
+ * shape show the same aurora without drawing anything themselves. While the
+ * view is being resized it crops and scales the frame it has, and the engine
+ * sizes its frame again once the size settles or the view moves to a monitor
+ * with another output scale.
+ */
+public class AuroraView extends Region {
+
+    private final AuroraEngine engine;
+    private final ImageView imageView = new ImageView();
+    private final ObservableValue<Boolean> showing = sceneProperty()
+            .flatMap(Scene::windowProperty)
+            .flatMap(Window::showingProperty)
+            .orElse(false);
+    private final ObservableValue<Number> outputScale = OutputScale.of(this);
+
+    AuroraView(AuroraEngine engine) {
+        this.engine = engine;
+        imageView.setMouseTransparent(true);
+        imageView.setPreserveRatio(false);
+        imageView.setSmooth(true);
+        imageView.imageProperty().bind(engine.imageProperty());
+        imageView.imageProperty().addListener((obs, ov, nv) -> requestLayout());
+        getChildren().add(imageView);
+        setMinSize(0, 0);
+
+        showing.addListener((obs, ov, nv) -> {
+            if (nv) {
+                engine.attach(this);
+            } else {
+                engine.detach(this);
+            }
+        });
+        // Layout already fits the last frame to any size, the engine's buffers follow once it settles
+        new ResizeCoalescer(widthProperty(), heightProperty(), (w, h) -> requestLayout(), (w, h) -> resized());
+        outputScale.addListener((obs, ov, nv) -> resized());
+    }
+
+    private void resized() {
+        if (showing.getValue()) {
+            engine.updateSize();
+        }
+    }
+
+    double getOutputScale() {
+        return outputScale.getValue().doubleValue();
+    }
+
+    public AuroraEngine getEngine() {
+        return engine;
+    }
+
+    // Fills whatever it is given, the frame has no size of its own
+    @Override
+    protected double computePrefWidth(double height) {
+        return 0;
+    }
+
+    @Override
+    protected double computePrefHeight(double width) {
+        return 0;
+    }
+
+    @Override
+    protected void layoutChildren() {
+        double width = getWidth();
+        double height = getHeight();
+        imageView.setFitWidth(width);
+        imageView.setFitHeight(height);
+
+        Image image = imageView.getImage();
+        if (image == null || width <= 0 || height <= 0) {
+            return;
+        }
+        // Cover the view: the largest centered part of the frame with the view's aspect ratio
+        double scale = Math.min(image.getWidth() / width, image.getHeight() / height);
+        double viewportWidth = width * scale;
+        double viewportHeight = height * scale;
+        imageView.setViewport(new Rectangle2D(
+                (image.getWidth() - viewportWidth) / 2, (image.getHeight() - viewportHeight) / 2,
+                viewportWidth, viewportHeight));
+    }
+}
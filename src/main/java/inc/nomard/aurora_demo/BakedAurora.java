@@ -0,0 +1,151 @@
+package inc.nomard.aurora_demo;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelBuffer;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.layout.Pane;
+import javafx.stage.Stage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.file.Path;
+
+public class BakedAurora extends Application {
+
+    private static final int NUM_LAYERS = 6;
+    private static final long SEED = 42;
+    private static final int LOOP_SECONDS = 20;
+    private static final int LOOP_FPS = 30;
+    private static final double FADE_SECONDS = 2;
+    private static final RenderScale RENDER_SCALE = RenderScale.QUARTER;
+    private static final double BAKE_WIDTH = 1280;
+    private static final double BAKE_HEIGHT = 720;
+
+    // Shown while the loop is baked on first start
+    private final AuroraSimulation liveSimulation = new AuroraSimulation(NUM_LAYERS, SEED);
+    private final PixelRasterizer liveRasterizer = new PixelRasterizer();
+    private final AuroraSurface liveSurface = new AuroraSurface();
+
+    private final ImageView loopView = new ImageView();
+    private ByteBuffer loopPixels;
+    private PixelBuffer<IntBuffer> loopBuffer;
+    private volatile BakedLoop loop;
+    private AnimationTimer animationTimer;
+    private Thread bakeThread;
+    // Loop frames only change LOOP_FPS times a second
+    private final FrameClock clock = DeterministicMode.newClock(LOOP_FPS);
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+
+    @Override
+    public void start(Stage stage) {
+        liveSurface.setRenderScale(RENDER_SCALE);
+        loopView.setSmooth(true);
+        loopView.setMouseTransparent(true);
+        Pane root = new Pane(liveSurface.getView(), loopView);
+        setupAnimation();
+
+        Scene scene = new Scene(root, BAKE_WIDTH, BAKE_HEIGHT);
+        stage.setScene(scene);
+        stage.show();
+        new VisibilityThrottle(stage, root, animationTimer, clock);
+
+        setupResizeListeners(scene);
+        updateSize(scene.getWidth(), scene.getHeight());
+        loadOrBake();
+    }
+
+    private void loadOrBake() {
+        Path file = BakedLoop.cacheFile(getClass().getSimpleName(), SEED,
+                RENDER_SCALE.scaledSize(BAKE_WIDTH), RENDER_SCALE.scaledSize(BAKE_HEIGHT),
+                AuroraMath.PALETTE_ARGB, LOOP_SECONDS, LOOP_FPS);
+        try {
+            BakedLoop cached = BakedLoop.open(file);
+            if (cached != null) {
+                showLoop(cached);
+                return;
+            }
+        } catch (IOException e) {
+            System.err.println("Baked loop unreadable, baking again: " + e.getMessage());
+        }
+
+        bakeThread = Thread.ofPlatform().name("aurora-bake").daemon().start(() -> {
+            try {
+                BakedLoop baked = BakedLoop.bake(file,
+                        new AuroraSimulation(NUM_LAYERS, SEED), new PixelRasterizer(),
+                        BAKE_WIDTH, BAKE_HEIGHT, RENDER_SCALE,
+                        LOOP_SECONDS, LOOP_FPS, FADE_SECONDS);
+                Platform.runLater(() -> showLoop(baked));
+            } catch (IOException e) {
+                System.err.println("Baking failed, staying live: " + e.getMessage());
+            }
+        });
+    }
+
+    private void showLoop(BakedLoop baked) {
+        loopPixels = ByteBuffer.allocateDirect(baked.getWidth() * baked.getHeight() * Integer.BYTES)
+                .order(ByteOrder.nativeOrder());
+        loopBuffer = new PixelBuffer<>(baked.getWidth(), baked.getHeight(),
+                loopPixels.asIntBuffer(), PixelFormat.getIntArgbPreInstance());
+        loopView.setImage(new WritableImage(loopBuffer));
+        liveSurface.getView().setVisible(false);
+        loop = baked;
+    }
+
+    private void setupAnimation() {
+        animationTimer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if (clock.tick(now)) {
+                    BakedLoop current = loop;
+                    if (current != null) {
+                        // Playback is a single copy out of the mapped file
+                        current.copyFrame(current.frameAt(clock.getTime()), loopPixels);
+                        loopBuffer.updateBuffer(b -> null);
+                    } else {
+                        liveSurface.render(liveSimulation.update(clock.getTime(), BAKE_WIDTH, BAKE_HEIGHT),
+                                liveRasterizer);
+                    }
+                }
+            }
+        };
+        animationTimer.start();
+    }
+
+    private void setupResizeListeners(Scene scene) {
+        scene.widthProperty().addListener((obs, ov, nv) ->
+                updateSize(nv.doubleValue(), scene.getHeight())
+        );
+        scene.heightProperty().addListener((obs, ov, nv) ->
+                updateSize(scene.getWidth(), nv.doubleValue())
+        );
+    }
+
+    // The loop is baked for one resolution, views stretch it to the scene
+    private void updateSize(double width, double height) {
+        liveSurface.resize(BAKE_WIDTH, BAKE_HEIGHT);
+        liveSurface.getView().setFitWidth(width);
+        liveSurface.getView().setFitHeight(height);
+        loopView.setFitWidth(width);
+        loopView.setFitHeight(height);
+    }
+
+    @Override
+    public void stop() {
+        if (animationTimer != null) {
+            animationTimer.stop();
+        }
+        if (bakeThread != null) {
+            bakeThread.interrupt();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package inc.nomard.aurora_demo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A pre-rendered, seamless aurora loop stored as raw premultiplied ARGB
+ * frames in a memory-mapped file. Playing a frame is a single bulk copy
+ * from the mapping into a {@code PixelBuffer}.
+ *
+ * <p>The loop is made seamless by cross-fading its first frames with the
+ * frames that follow the end of the loop, so the last frame flows into the
+ * first one.
+ */
+public final class BakedLoop {
+
+    private static final int MAGIC = 0x4155524F; // "AURO"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 6 * Integer.BYTES;
+
+    private final MappedByteBuffer frames;
+    private final int width;
+    private final int height;
+    private final int frameCount;
+    private final int fps;
+    private final int frameBytes;
+
+    private BakedLoop(MappedByteBuffer frames, int width, int height, int frameCount, int fps) {
+        this.frames = frames;
+        this.width = width;
+        this.height = height;
+        this.frameCount = frameCount;
+        this.fps = fps;
+        this.frameBytes = width * height * Integer.BYTES;
+    }
+
+    public static Path cacheFile(String variant, long seed, int width, int height,
+                                 int[] palette, int seconds, int fps) {
+        String name = String.format("%s-%d-%dx%d-%08x-%ds-%dfps.loop",
+                variant, seed, width, height, Arrays.hashCode(palette), seconds, fps);
+        return Path.of(System.getProperty("java.io.tmpdir"), "aurora_demo", name);
+    }
+
+    // Returns null when the file is missing or was written by another version or byte order
+    public static BakedLoop open(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Loop too large to map: " + file);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.order(ByteOrder.nativeOrder());
+            if (mapped.limit() < HEADER_BYTES
+                    || mapped.getInt(0) != MAGIC
+                    || mapped.getInt(4) != VERSION) {
+                return null;
+            }
+
+            int width = mapped.getInt(8);
+            int height = mapped.getInt(12);
+            int frameCount = mapped.getInt(16);
+            int fps = mapped.getInt(20);
+            long expected = HEADER_BYTES + (long) width * height * Integer.BYTES * frameCount;
+            if (expected != mapped.limit()) {
+                return null;
+            }
+            return new BakedLoop(mapped, width, height, frameCount, fps);
+        }
+    }
+
+    public static BakedLoop bake(Path file, AuroraSimulation simulation, PixelRasterizer rasterizer,
+                                 double sceneWidth, double sceneHeight, RenderScale renderScale,
+                                 int seconds, int fps, double fadeSeconds) throws IOException {
+        int width = renderScale.scaledSize(sceneWidth);
+        int height = renderScale.scaledSize(sceneHeight);
+        int frameCount = seconds * fps;
+        int fadeFrames = Math.min(frameCount, (int) Math.round(fadeSeconds * fps));
+        int[] pixels = new int[width * height];
+        int[] wrapped = new int[width * height];
+
+        if (HEADER_BYTES + (long) width * height * Integer.BYTES * frameCount > Integer.MAX_VALUE) {
+            throw new IOException("Loop too large to map: " + width + "x" + height + " x " + frameCount);
+        }
+
+        Files.createDirectories(file.getParent());
+        Path partial = file.resolveSibling(file.getFileName() + ".part");
+        ByteBuffer buffer = ByteBuffer.allocateDirect(Math.max(HEADER_BYTES, width * height * Integer.BYTES))
+                .order(ByteOrder.nativeOrder());
+
+        try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            buffer.clear();
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(width).putInt(height).putInt(frameCount).putInt(fps);
+            writeFully(channel, buffer.flip());
+
+            IntBuffer ints = buffer.clear().asIntBuffer();
+            for (int i = 0; i < frameCount; i++) {
+                double time = i / (double) fps;
+                rasterizer.render(simulation.update(time, sceneWidth, sceneHeight),
+                        pixels, width, height, renderScale.getFactor());
+
+                // Fade in from the frames that follow the end of the loop
+                if (i < fadeFrames) {
+                    rasterizer.render(simulation.update(time + seconds, sceneWidth, sceneHeight),
+                            wrapped, width, height, renderScale.getFactor());
+                    mix(wrapped, pixels, i / (double) fadeFrames);
+                }
+
+                ints.put(0, pixels);
+                buffer.clear().limit(width * height * Integer.BYTES);
+                writeFully(channel, buffer);
+            }
+        }
+
+        Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return open(file);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    // Blends from into to in place, t = 0 keeps from, t = 1 keeps to
+    private static void mix(int[] from, int[] to, double t) {
+        int w = (int) Math.round(t * 256);
+        for (int i = 0; i < to.length; i++) {
+            int a = from[i];
+            int b = to[i];
+            int rb = ((a & 0xFF00FF) * (256 - w) + (b & 0xFF00FF) * w) >>> 8;
+            int g = ((a & 0x00FF00) * (256 - w) + (b & 0x00FF00) * w) >>> 8;
+            to[i] = 0xFF000000 | (rb & 0xFF00FF) | (g & 0x00FF00);
+        }
+    }
+
+    public void copyFrame(int index, ByteBuffer target) {
+        int offset = HEADER_BYTES + Math.floorMod(index, frameCount) * frameBytes;
+        target.put(0, frames, offset, frameBytes);
+    }
+
+    public int frameAt(double time) {
+        return (int) (time * fps) % frameCount;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    public int getFps() {
+        return fps;
+    }
+}
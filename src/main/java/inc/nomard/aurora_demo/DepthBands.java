@@ -0,0 +1,67 @@
+package inc.nomard.aurora_demo;
+
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.effect.BlendMode;
+import javafx.scene.effect.BoxBlur;
+import javafx.scene.layout.Pane;
+
+/**
+ * Composites sharp layers into a few groups and blurs each group once,
+ * instead of giving every layer its own {@link BoxBlur}. A layer's depth
+ * blur is approximated by the band whose radius is closest to it.
+ */
+public class DepthBands {
+
+    private final Group[] bands;
+    private final double[] radii;
+    private final int iterations;
+    private int layerCount;
+
+    // blendMode is how each band composites onto what is below it, null for SRC_OVER
+    public DepthBands(Pane parent, int bandCount, double minBlur, double maxBlur, int iterations,
+                      BlendMode blendMode) {
+        this.bands = new Group[bandCount];
+        this.radii = new double[bandCount];
+        this.iterations = iterations;
+
+        for (int i = 0; i < bandCount; i++) {
+            // Spread the radii evenly, a single band sits in the middle of the range
+            double t = bandCount == 1 ? 0.5 : i / (double) (bandCount - 1);
+            radii[i] = minBlur + (maxBlur - minBlur) * t;
+
+            Group band = new Group();
+            band.setBlendMode(blendMode);
+            band.setMouseTransparent(true);
+            band.setEffect(new BoxBlur(radii[i], radii[i], iterations));
+            bands[i] = band;
+            parent.getChildren().add(band);
+        }
+    }
+
+    public void add(Node layer, double blur) {
+        int nearest = 0;
+        for (int i = 1; i < radii.length; i++) {
+            if (Math.abs(radii[i] - blur) < Math.abs(radii[nearest] - blur)) {
+                nearest = i;
+            }
+        }
+        bands[nearest].getChildren().add(layer);
+        layerCount++;
+    }
+
+    public int getBandCount() {
+        return bands.length;
+    }
+
+    // Blur passes per frame with one BoxBlur per layer, minus the passes of the non-empty bands
+    public int getSavedEffectPasses() {
+        int usedBands = 0;
+        for (Group band : bands) {
+            if (!band.getChildren().isEmpty()) {
+                usedBands++;
+            }
+        }
+        return (layerCount - usedBands) * iterations;
+    }
+}
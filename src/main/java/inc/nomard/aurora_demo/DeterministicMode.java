@@ -0,0 +1,62 @@
+package inc.nomard.aurora_demo;
+
+import java.util.Random;
+
+/**
+ * Reproducible runs for comparing the variants. Started with
+ * {@code -Daurora.seed=N}, every variant draws its random parameters from a
+ * {@link Random} seeded with N, and its {@link FrameClock} advances by a
+ * fixed step per frame instead of by wall time, {@code -Daurora.step}
+ * seconds or 1/60 by default. Frame n then shows the same layer states on
+ * every run and in every variant, however fast the machine draws it.
+ */
+public final class DeterministicMode {
+
+    public static final String SEED_PROPERTY = "aurora.seed";
+    public static final String STEP_PROPERTY = "aurora.step";
+
+    private static final double DEFAULT_STEP = 1 / 60.0;
+
+    private static final Long SEED = Long.getLong(SEED_PROPERTY);
+    private static final double STEP = SEED == null ? 0 : readStep();
+
+    private DeterministicMode() {
+    }
+
+    private static double readStep() {
+        String value = System.getProperty(STEP_PROPERTY);
+        if (value == null) {
+            return DEFAULT_STEP;
+        }
+        try {
+            double step = Double.parseDouble(value);
+            if (step > 0) {
+                return step;
+            }
+        } catch (NumberFormatException ignored) {
+        }
+        System.err.println("Invalid " + STEP_PROPERTY + " '" + value + "', using " + DEFAULT_STEP);
+        return DEFAULT_STEP;
+    }
+
+    public static boolean isEnabled() {
+        return SEED != null;
+    }
+
+    // Seeded when deterministic, every call starts the same sequence
+    public static Random newRandom() {
+        return SEED != null ? new Random(SEED) : new Random();
+    }
+
+    // A clock on the fixed step when deterministic
+    public static FrameClock newClock(double maxFps) {
+        FrameClock clock = new FrameClock(maxFps);
+        clock.setFixedStep(STEP);
+        return clock;
+    }
+
+    // Seconds per frame, 0 when time follows the pulses
+    public static double getStep() {
+        return STEP;
+    }
+}
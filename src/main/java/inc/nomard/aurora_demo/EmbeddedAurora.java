@@ -0,0 +1,58 @@
+package inc.nomard.aurora_demo;
+
+import javafx.application.Application;
+import javafx.scene.Scene;
+import javafx.scene.input.KeyCode;
+import javafx.scene.layout.StackPane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+import javafx.stage.Stage;
+
+/**
+ * An {@link AuroraPane} behind ordinary content, styled from CSS. V hides
+ * and shows the aurora, which stops and starts it, Q steps through the
+ * quality levels and P swaps the palette.
+ */
+public class EmbeddedAurora extends Application {
+
+    private static final String[] PALETTES = {
+            "-aurora-palette: linear-gradient(#200039, #400d67, #5600a0, #9000ff, #ff00e6, #cc19a8);",
+            "-aurora-palette: linear-gradient(#002b36, #00875a, #3cf2a5, #1a5fb4);"
+    };
+
+    private final AuroraPane aurora = new AuroraPane();
+    private int palette;
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+
+    @Override
+    public void start(Stage stage) {
+        // Inline styles win over setters, so only the palette comes from CSS here
+        aurora.setStyle(PALETTES[palette]);
+        Text caption = new Text("V hides the aurora, Q changes quality, P changes colors");
+        caption.setFill(Color.WHITE);
+        caption.setFont(Font.font(20));
+        StackPane root = new StackPane(aurora, caption);
+        root.setStyle("-fx-background-color: rgb(15, 15, 15);");
+
+        Scene scene = new Scene(root, 1280, 720);
+        scene.setOnKeyPressed(event -> {
+            if (event.getCode() == KeyCode.V) {
+                aurora.setVisible(!aurora.isVisible());
+            } else if (event.getCode() == KeyCode.Q) {
+                QualityLevel lower = aurora.getQuality().lower();
+                aurora.setQuality(lower == aurora.getQuality() ? QualityLevel.ULTRA : lower);
+                caption.setText("Quality " + aurora.getQuality());
+            } else if (event.getCode() == KeyCode.P) {
+                palette = (palette + 1) % PALETTES.length;
+                aurora.setStyle(PALETTES[palette]);
+            }
+        });
+        stage.setTitle("Embedded aurora");
+        stage.setScene(scene);
+        stage.show();
+    }
+}
@@ -0,0 +1,261 @@
+package inc.nomard.aurora_demo;
+
+import javafx.scene.effect.BlendMode;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * {@link RowKernels} that composites every layer of a pixel in one pass
+ * using integer math only: channels are 8.8 fixed point (0..0xFF00 is
+ * 0..255), weights are 0..256. Layers blend with {@link BlendMode#SCREEN},
+ * {@link BlendMode#SOFT_LIGHT} or {@link BlendMode#ADD}, so the node
+ * variants' blended circles can be reproduced without a GPU and without an
+ * intermediate render target per blended node.
+ *
+ * <p>By default the layers blend onto the opaque background. A compositor
+ * from {@link #overBackdrop} instead blends them into a transparent group
+ * with the W3C separable blend formula, where the first layer lands
+ * source-over, and draws the group source-over onto its backdrop, the way a
+ * cleared canvas with a global blend mode shows over the scene's fill.
+ */
+public final class FixedPointCompositor implements RowKernels {
+
+    private static final int ONE = 0xFF00;
+    private static final int OPACITY = Math.round(PixelRasterizer.BASE_OPACITY * 256);
+    private static final int MID_STOP = Math.round(ScalarKernels.MID_STOP * 256);
+    // 256 / MID_STOP and 256 / (256 - MID_STOP) in 8.8, so stop fractions need no division
+    private static final int INV_MID_STOP = (256 << 16) / MID_STOP >> 8;
+    private static final int INV_OUTER_SPAN = (256 << 16) / (256 - MID_STOP) >> 8;
+
+    // W3C soft light curve g(D) for each 8 bit D, in 8.8
+    private static final int[] SOFT_LIGHT_CURVE = softLightCurve();
+
+    // Layer stops as 0..255 integers, per rendering thread
+    private static final ThreadLocal<int[]> STOPS = ThreadLocal.withInitial(() -> new int[0]);
+
+    private static final int SCREEN = 0;
+    private static final int SOFT_LIGHT = 1;
+    private static final int ADD = 2;
+
+    private final BlendMode[] layerModes;
+    private final int[] modeCodes;
+    // Opaque RGB the transparent group is drawn onto, or -1 to blend onto the background
+    private final int backdrop;
+
+    public FixedPointCompositor() {
+        this(BlendMode.SCREEN);
+    }
+
+    // Layer i uses layerModes[i % layerModes.length]
+    public FixedPointCompositor(BlendMode... layerModes) {
+        this(-1, layerModes);
+    }
+
+    // Layers blended into a transparent group, then drawn onto the opaque backdrop
+    public static FixedPointCompositor overBackdrop(int backdrop, BlendMode... layerModes) {
+        return new FixedPointCompositor(backdrop & 0xFFFFFF, layerModes);
+    }
+
+    private FixedPointCompositor(int backdrop, BlendMode[] layerModes) {
+        this.backdrop = backdrop;
+        if (layerModes.length == 0) {
+            throw new IllegalArgumentException("At least one blend mode is required");
+        }
+        for (BlendMode mode : layerModes) {
+            if (mode != BlendMode.SCREEN && mode != BlendMode.SOFT_LIGHT && mode != BlendMode.ADD) {
+                throw new IllegalArgumentException("Unsupported blend mode: " + mode);
+            }
+        }
+        this.layerModes = layerModes.clone();
+        this.modeCodes = new int[layerModes.length];
+        for (int i = 0; i < layerModes.length; i++) {
+            modeCodes[i] = switch (layerModes[i]) {
+                case SOFT_LIGHT -> SOFT_LIGHT;
+                case ADD -> ADD;
+                default -> SCREEN;
+            };
+        }
+    }
+
+    // ":mode,mode,..." with BlendMode names in any case, SCREEN when empty
+    static FixedPointCompositor parse(String modes) {
+        if (modes.isEmpty() || modes.equals(":")) {
+            return new FixedPointCompositor();
+        }
+        String[] names = modes.substring(modes.startsWith(":") ? 1 : 0).split(",");
+        BlendMode[] layerModes = new BlendMode[names.length];
+        for (int i = 0; i < names.length; i++) {
+            layerModes[i] = BlendMode.valueOf(names[i].trim().toUpperCase(Locale.ROOT));
+        }
+        return new FixedPointCompositor(layerModes);
+    }
+
+    private static int[] softLightCurve() {
+        int[] curve = new int[256];
+        for (int i = 0; i < curve.length; i++) {
+            double d = i / 255.0;
+            double g = d <= 0.25 ? ((16 * d - 12) * d + 4) * d : Math.sqrt(d);
+            curve[i] = (int) Math.round(g * ONE);
+        }
+        return curve;
+    }
+
+    @Override
+    public void renderRow(PixelRasterizer layers, int[] pixels, int offset, int from, int to, float x0, float py) {
+        int count = layers.layers;
+        int[] stops = fixedStops(layers, count);
+        boolean group = backdrop >= 0;
+        int background = group ? backdrop : PixelRasterizer.BACKGROUND;
+        int bgR = ((background >> 16) & 0xFF) << 8;
+        int bgG = ((background >> 8) & 0xFF) << 8;
+        int bgB = (background & 0xFF) << 8;
+
+        for (int i = from; i < to; i++) {
+            float px = x0 + i + 0.5f;
+            // Premultiplied in a group, which starts transparent
+            int r = bgR, g = bgG, b = bgB, alpha = ONE;
+            if (group) {
+                r = g = b = alpha = 0;
+            }
+
+            for (int l = 0, m = 0; l < count; l++, m = m + 1 == modeCodes.length ? 0 : m + 1) {
+                // Geometry stays in float, only its results are quantized to 0..256 weights
+                float ex = px - layers.centerX[l];
+                float ey = py - layers.centerY[l];
+                int edge = (int) (((layers.radius[l] - (float) Math.sqrt(ex * ex + ey * ey))
+                        * layers.invBlur[l] + 0.5f) * 256);
+                if (edge <= 0) {
+                    continue;
+                }
+                edge = Math.min(edge, 256);
+
+                float dx = px - layers.gradientX[l];
+                float dy = py - layers.gradientY[l];
+                int t = (int) ((float) Math.sqrt(dx * dx + dy * dy) * layers.invRadius[l] * 256);
+
+                int s = l * PixelRasterizer.STOP_STRIDE;
+                int f;
+                if (t < MID_STOP) {
+                    f = t * INV_MID_STOP >> 8;
+                } else {
+                    s += 4;
+                    f = Math.min(256, (t - MID_STOP) * INV_OUTER_SPAN >> 8);
+                }
+
+                int sa = lerp(stops[s + 3], stops[s + 7], f);
+                int a = ((sa + (sa >> 7)) * edge >> 8) * OPACITY >> 8;
+                int sr = lerp(stops[s], stops[s + 4], f);
+                int sg = lerp(stops[s + 1], stops[s + 5], f);
+                int sb = lerp(stops[s + 2], stops[s + 6], f);
+
+                if (group) {
+                    int mode = modeCodes[m];
+                    int sourceAlpha = a * 0xFF;
+                    r = groupBlend(mode, r, alpha, sr, sourceAlpha);
+                    g = groupBlend(mode, g, alpha, sg, sourceAlpha);
+                    b = groupBlend(mode, b, alpha, sb, sourceAlpha);
+                    alpha = Math.min(ONE, alpha + sourceAlpha - mulFull(sourceAlpha, alpha));
+                    continue;
+                }
+                switch (modeCodes[m]) {
+                    case SOFT_LIGHT -> {
+                        r = softLight(r, sr, a);
+                        g = softLight(g, sg, a);
+                        b = softLight(b, sb, a);
+                    }
+                    case ADD -> {
+                        r = Math.min(ONE, r + sr * a);
+                        g = Math.min(ONE, g + sg * a);
+                        b = Math.min(ONE, b + sb * a);
+                    }
+                    default -> {
+                        r = screen(r, sr * a);
+                        g = screen(g, sg * a);
+                        b = screen(b, sb * a);
+                    }
+                }
+            }
+
+            if (group) {
+                // The group source-over onto the backdrop, rounding may overshoot by a little
+                r = Math.min(ONE, r + mulFull(bgR, ONE - alpha));
+                g = Math.min(ONE, g + mulFull(bgG, ONE - alpha));
+                b = Math.min(ONE, b + mulFull(bgB, ONE - alpha));
+            }
+            pixels[offset + i] = 0xFF000000
+                    | (((r + 0x80) >> 8) << 16)
+                    | (((g + 0x80) >> 8) << 8)
+                    | ((b + 0x80) >> 8);
+        }
+    }
+
+    private static int[] fixedStops(PixelRasterizer layers, int count) {
+        int[] stops = STOPS.get();
+        int length = count * PixelRasterizer.STOP_STRIDE;
+        if (stops.length < length) {
+            stops = new int[length];
+            STOPS.set(stops);
+        }
+        for (int i = 0; i < length; i++) {
+            stops[i] = Math.round(layers.stops[i] * 255);
+        }
+        return stops;
+    }
+
+    private static int lerp(int from, int to, int f) {
+        return from + ((to - from) * f >> 8);
+    }
+
+    // x * y / 0xFF00 for an 8.8 x and an 8.8 y in 0..0xFF00
+    private static int mul(int x, int y) {
+        int v = x * (y >> 8);
+        return (v + (v >> 8) + 1) >> 8;
+    }
+
+    // SCREEN with a premultiplied 8.8 source: d + s - d * s
+    private static int screen(int d, int s) {
+        return d + mul(s, ONE - d);
+    }
+
+    // W3C soft light of an 8 bit source over an 8.8 destination, weighted by a in 0..256
+    private static int softLight(int d, int s, int a) {
+        int twoS = s << 9;
+        int blended;
+        if (twoS <= ONE) {
+            blended = d - mul(mul(ONE - twoS, d), ONE - d);
+        } else {
+            blended = d + mul(SOFT_LIGHT_CURVE[d >> 8] - d, twoS - ONE);
+        }
+        return d + ((blended - d) * a >> 8);
+    }
+
+    // W3C separable blending of an 8 bit source with 8.8 alpha over a premultiplied 8.8 destination c
+    // of alpha d: source * (1 - d) + c * (1 - alpha) + alpha * d * B(straight destination, source)
+    private static int groupBlend(int mode, int c, int d, int s, int alpha) {
+        int source = s << 8;
+        int result = mulFull(source, mulFull(alpha, ONE - d)) + mulFull(c, ONE - alpha);
+        if (d == 0) {
+            return result;
+        }
+        int straight = Math.min(ONE, (int) ((long) c * ONE / d));
+        int blended = switch (mode) {
+            case SOFT_LIGHT -> softLight(straight, s, 256);
+            case ADD -> Math.min(ONE, straight + source);
+            default -> screen(straight, source);
+        };
+        return result + mulFull(mulFull(alpha, d), blended);
+    }
+
+    // x * y / 0xFF00 keeping all of y, group alphas are often too small for mul's 8 bits of it
+    private static int mulFull(int x, int y) {
+        long v = (long) x * y;
+        return (int) ((v + (v >> 8) + 0x8000) >> 16);
+    }
+
+    @Override
+    public String name() {
+        String modes = Arrays.toString(layerModes).toLowerCase();
+        return backdrop < 0 ? "fixed-point-" + modes : String.format("fixed-point-%s-over-%06x", modes, backdrop);
+    }
+}
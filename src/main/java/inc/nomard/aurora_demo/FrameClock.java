@@ -0,0 +1,155 @@
+package inc.nomard.aurora_demo;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Animation time driven by the pulse timestamps an {@link javafx.animation.AnimationTimer}
+ * receives, instead of a fixed step per tick. Motion speed stays the same at
+ * 60, 120 or 144 Hz and when pulses run late or are skipped by the cap.
+ *
+ * <p>Time advances by an exponentially smoothed delta, so pulse jitter does
+ * not show up as judder. Deltas after a stall are clamped, so the animation
+ * resumes where it stopped rather than jumping ahead.
+ */
+public class FrameClock {
+
+    private static final double MAX_DELTA = 0.1;
+    private static final double SMOOTHING = 0.1;
+    private static final double NOMINAL_DELTA = 1 / 60.0;
+
+    private long capNanos;
+    private long throttleNanos;
+    private long frameNanos;
+    private boolean seedSmoothing = true;
+    private long lastTick = -1;
+    private long nextFrame;
+    private double time;
+    private double delta;
+    private double smoothedDelta = NOMINAL_DELTA;
+    private double step;
+    private double fixedStep;
+    private long frameCount;
+
+    public FrameClock() {
+        this(0);
+    }
+
+    // maxFps caps how many ticks are accepted per second, 0 for the display's native rate
+    public FrameClock(double maxFps) {
+        setMaxFps(maxFps);
+    }
+
+    public void setMaxFps(double maxFps) {
+        capNanos = toNanos(maxFps);
+        updateFrameNanos();
+    }
+
+    public double getMaxFps() {
+        return capNanos > 0 ? TimeUnit.SECONDS.toNanos(1) / (double) capNanos : 0;
+    }
+
+    // A second, usually lower cap for while the animation is in the background, 0 to lift it
+    public void setThrottleFps(double throttleFps) {
+        throttleNanos = toNanos(throttleFps);
+        updateFrameNanos();
+    }
+
+    // Advances every accepted tick by exactly this many seconds whatever the timestamps say, 0 follows them
+    public void setFixedStep(double fixedStep) {
+        this.fixedStep = Math.max(0, fixedStep);
+    }
+
+    public double getFixedStep() {
+        return fixedStep;
+    }
+
+    private static long toNanos(double fps) {
+        return fps > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / fps) : 0;
+    }
+
+    private void updateFrameNanos() {
+        long next = Math.max(capNanos, throttleNanos);
+        if (next != frameNanos) {
+            frameNanos = next;
+            // The old average says nothing about the new rate
+            seedSmoothing = true;
+        }
+    }
+
+    // Returns false when the frame should be skipped because of the rate cap
+    public boolean tick(long now) {
+        if (lastTick < 0) {
+            lastTick = now;
+            nextFrame = now + frameNanos;
+            delta = 0;
+            step = 0;
+            frameCount++;
+            return true;
+        }
+        // Pulses jitter, accept one slightly early rather than dropping every other frame at the cap rate
+        if (now < nextFrame - frameNanos / 8) {
+            return false;
+        }
+        // Keep the cap's phase so that e.g. 60 of 144 Hz pulses average out to 60, without catch-up bursts
+        nextFrame += frameNanos;
+        if (nextFrame <= now) {
+            nextFrame = now + frameNanos;
+        }
+
+        if (fixedStep > 0) {
+            delta = fixedStep;
+            smoothedDelta = fixedStep;
+            step = fixedStep;
+            time += step;
+            lastTick = now;
+            frameCount++;
+            return true;
+        }
+
+        // A throttled rate may step further than MAX_DELTA on purpose
+        delta = Math.min(Math.max(MAX_DELTA, 2e-9 * frameNanos), (now - lastTick) / 1e9);
+        // The first measured delta seeds the average, so a 144 Hz display doesn't start out at 60 Hz steps
+        smoothedDelta = seedSmoothing ? delta : smoothedDelta + (delta - smoothedDelta) * SMOOTHING;
+        seedSmoothing = false;
+        step = smoothedDelta;
+        time += step;
+        lastTick = now;
+        frameCount++;
+        return true;
+    }
+
+    // Forget the last timestamp, the next tick continues from the current time without a jump
+    public void reset() {
+        lastTick = -1;
+        seedSmoothing = true;
+    }
+
+    // Seconds of animation time
+    public double getTime() {
+        return time;
+    }
+
+    // Seconds between the last two accepted ticks, clamped
+    public double getDelta() {
+        return delta;
+    }
+
+    // Smoothed seconds per frame
+    public double getSmoothedDelta() {
+        return smoothedDelta;
+    }
+
+    // Seconds the time advanced by on the last accepted tick, for state that integrates per frame
+    public double getStep() {
+        return step;
+    }
+
+    // Pulse timestamp of the last accepted tick, in nanoseconds
+    public long getFrameTimestamp() {
+        return lastTick;
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+}
@@ -0,0 +1,225 @@
+package inc.nomard.aurora_demo;
+
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One bounded cache for the gradients of every variant. A gradient is
+ * described by a {@link Style}, the recipe, plus two quantized ints: a
+ * shade, usually a step along the palette cycle, and a column for one
+ * geometric parameter. Coordinates are proportional, so the position of a
+ * node is never part of the key, and every frame that lands on the same
+ * shade and column gets the same instance back.
+ *
+ * <p>Keys are primitive longs in an open-addressing index, so lookups don't
+ * allocate. The capacity is fixed. When it is full, a CLOCK sweep evicts
+ * the first entry that hasn't been used since the hand last passed it, an
+ * approximation of least recently used that needs one bit per entry.
+ * Use from the FX thread.
+ */
+public final class GradientCache {
+
+    public interface Factory<P extends Paint> {
+        P create(int shade, int column);
+    }
+
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    private static final int SHADE_BITS = 24;
+    private static final int COLUMN_BITS = 24;
+    private static final GradientCache SHARED = new GradientCache(DEFAULT_CAPACITY);
+
+    private final int capacity;
+    private final long[] keys;
+    private final Paint[] paints;
+    private final boolean[] referenced;
+    // Entry index + 1 per slot, 0 for empty, at most half full
+    private final int[] index;
+    private final Map<String, Style<?>> styles = new HashMap<>();
+    private int size;
+    private int hand;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public GradientCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.keys = new long[capacity];
+        this.paints = new Paint[capacity];
+        this.referenced = new boolean[capacity];
+        this.index = new int[Integer.highestOneBit(capacity) << 2];
+    }
+
+    // The cache all variants share
+    public static GradientCache shared() {
+        return SHARED;
+    }
+
+    // The style registered under name, or a new one built by factory. A name stands for one recipe,
+    // so variants drawing the same gradients share entries by registering the same name
+    @SuppressWarnings("unchecked")
+    public <P extends Paint> Style<P> style(String name, Factory<P> factory) {
+        return (Style<P>) styles.computeIfAbsent(name, n -> new Style<>(this, styles.size(), factory));
+    }
+
+    private Paint get(Style<?> style, int shade, int column) {
+        if (shade < 0 || shade >= 1 << SHADE_BITS || column < 0 || column >= 1 << COLUMN_BITS) {
+            throw new IllegalArgumentException("Shade or column out of range: " + shade + ", " + column);
+        }
+        long key = key(style.id, shade, column);
+        int slot = find(key);
+        int entry = index[slot] - 1;
+        if (entry >= 0) {
+            referenced[entry] = true;
+            hits++;
+            return paints[entry];
+        }
+
+        misses++;
+        Paint paint = style.factory.create(shade, column);
+        if (size < capacity) {
+            entry = size++;
+        } else {
+            entry = evict();
+            slot = find(key);
+        }
+        keys[entry] = key;
+        paints[entry] = paint;
+        referenced[entry] = false;
+        index[slot] = entry + 1;
+        return paint;
+    }
+
+    // Slot holding key, or the empty slot it belongs in
+    private int find(long key) {
+        int mask = index.length - 1;
+        int slot = hash(key) & mask;
+        while (index[slot] != 0 && keys[index[slot] - 1] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    static long key(int style, int shade, int column) {
+        return ((long) style << (SHADE_BITS + COLUMN_BITS)) | ((long) shade << COLUMN_BITS) | column;
+    }
+
+    static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    // Frees the entry under the clock hand that wasn't used since the last sweep
+    private int evict() {
+        while (referenced[hand]) {
+            referenced[hand] = false;
+            hand = (hand + 1) % capacity;
+        }
+        int entry = hand;
+        hand = (hand + 1) % capacity;
+        removeFromIndex(find(keys[entry]));
+        paints[entry] = null;
+        evictions++;
+        return entry;
+    }
+
+    // Backward shift deletion, keeps every probe chain intact without tombstones
+    private void removeFromIndex(int slot) {
+        int mask = index.length - 1;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if (index[next] == 0) {
+                break;
+            }
+            int home = hash(keys[index[next] - 1]) & mask;
+            // Move the entry back if its home isn't cyclically within (slot, next]
+            if (slot <= next ? (home <= slot || home > next) : (home <= slot && home > next)) {
+                index[slot] = index[next];
+                slot = next;
+            }
+        }
+        index[slot] = 0;
+    }
+
+    // Drops every entry, counters keep running
+    public void clear() {
+        Arrays.fill(index, 0);
+        Arrays.fill(paints, null);
+        size = 0;
+        hand = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : hits / (double) lookups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Gradient cache: %d of %d entries, %d hits, %d misses, %d evictions (%.1f%% hit rate)",
+                size, capacity, hits, misses, evictions, getHitRate() * 100);
+    }
+
+    // The step of colorProgress, in palette entries, on a palette cycle of shadesPerColor steps per entry
+    public static int shade(double colorProgress, int shadesPerColor) {
+        return (int) (colorProgress * shadesPerColor);
+    }
+
+    // The color of a shade on the palette cycle, the neighbours blended linearly or with a smooth step
+    public static Color paletteColor(Color[] palette, int shade, int shadesPerColor, boolean smoothStep) {
+        int index1 = shade / shadesPerColor % palette.length;
+        int index2 = (index1 + 1) % palette.length;
+        double blend = (shade % shadesPerColor) / (double) shadesPerColor;
+        return palette[index1].interpolate(palette[index2], smoothStep ? AuroraMath.smoothStep(blend) : blend);
+    }
+
+    /**
+     * A gradient recipe registered with a cache.
+     *
+     * @param <P> the paint type the recipe builds
+     */
+    public static final class Style<P extends Paint> {
+        private final GradientCache cache;
+        private final int id;
+        private final Factory<P> factory;
+
+        private Style(GradientCache cache, int id, Factory<P> factory) {
+            this.cache = cache;
+            this.id = id;
+            this.factory = factory;
+        }
+
+        @SuppressWarnings("unchecked")
+        public P get(int shade, int column) {
+            return (P) cache.get(this, shade, column);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package inc.nomard.aurora_demo;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs one task at a time on a single daemon thread. The task is handed
+ * over through a field and {@link LockSupport} instead of a queue, thread or
+ * future per task, so submitting allocates nothing. Meant for pipelines that
+ * keep at most one task in flight, like {@link PipelinedStates}: a task
+ * submitted before the previous one was picked up is rejected.
+ */
+public class HandoffExecutor implements Executor, AutoCloseable {
+
+    private final AtomicReference<Runnable> pending = new AtomicReference<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    public HandoffExecutor(String name) {
+        thread = new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (!running) {
+            throw new RejectedExecutionException("Executor is closed");
+        }
+        if (!pending.compareAndSet(null, task)) {
+            throw new RejectedExecutionException("Previous task not picked up yet");
+        }
+        LockSupport.unpark(thread);
+    }
+
+    private void run() {
+        while (running) {
+            Runnable task = pending.getAndSet(null);
+            if (task == null) {
+                LockSupport.park(this);
+                continue;
+            }
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // Drops a task that hasn't started, a running one finishes
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+}
@@ -0,0 +1,49 @@
+package inc.nomard.aurora_demo;
+
+/**
+ * Layer state for one frame, in scene coordinates. Each layer is the
+ * scaled circle of {@code AuroraCircles} with its three gradient stops
+ * already derived, so renderers only have to position and blend it.
+ */
+public final class LayerFrame {
+
+    static final double MID_STOP = 0.7;
+
+    // Layers in use, at most the capacity of the arrays
+    int count;
+    final double[] centerX;
+    final double[] centerY;
+    final double[] gradientX;
+    final double[] gradientY;
+    final double[] radius;
+    final double[] blur;
+    final int[] color;
+    final int[] innerStop;
+    final int[] midStop;
+    final int[] outerStop;
+
+    LayerFrame(int count) {
+        this.count = count;
+        this.centerX = new double[count];
+        this.centerY = new double[count];
+        this.gradientX = new double[count];
+        this.gradientY = new double[count];
+        this.radius = new double[count];
+        this.blur = new double[count];
+        this.color = new int[count];
+        this.innerStop = new int[count];
+        this.midStop = new int[count];
+        this.outerStop = new int[count];
+    }
+
+    void setColor(int layer, int argb) {
+        color[layer] = argb;
+        innerStop[layer] = AuroraMath.derive(argb, 1.2, 0.9);
+        midStop[layer] = AuroraMath.derive(argb, 0.8, 0.4);
+        outerStop[layer] = AuroraMath.derive(argb, 0.5, 0.1);
+    }
+
+    public int getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,152 @@
+package inc.nomard.aurora_demo;
+
+/**
+ * The layer trajectories of {@code AuroraCircles} as phase-wrapped
+ * oscillators. Each distinct frequency is a 64 bit phase accumulator in
+ * fractions of a turn that wraps by integer overflow, so advancing it is
+ * exact integer addition and the phase never loses precision, however long
+ * the aurora runs. Only the handful of shared frequencies go through
+ * sin/cos per frame. Each layer's phase offsets are folded into the
+ * amplitude columns of a {@link LayerStore}, so a layer's offsets cost a
+ * few multiplies, and the bulk methods run them as loops over the columns.
+ */
+public final class MotionOscillators {
+
+    // Seconds after which the motion repeats: every speed is a multiple of 0.05 rad/s, so the terms all
+    // come round after 113 of their 40π s periods, and the color cycle then is 2e-4 palette entries off.
+    // A time kept wrapped by it seeks as precisely after days as in the first minute
+    public static final double PERIOD = 113 * 40 * Math.PI;
+
+    private static final double TURN = 2 * Math.PI;
+
+    // Angular speeds in rad/s of the x, y, scale and rotation terms, 0.4 is shared by y and scale
+    private static final double[] SPEEDS = {0.35, 0.25, 0.3, 0.4, 0.2};
+    private static final int X1 = 0, X2 = 1, Y1 = 2, Y2 = 3, SCALE = 3, ROTATION = 4;
+    private static final double COLOR_SPEED = 0.15; // palette entries per second
+
+    private final long[] phases = new long[SPEEDS.length];
+    private final double[] sin = new double[SPEEDS.length];
+    private final double[] cos = new double[SPEEDS.length];
+    private final double[] turnsPerSecond = new double[SPEEDS.length];
+    private final LayerStore layers;
+    private final int paletteSize;
+    private long colorPhase;
+    private final double colorTurnsPerSecond;
+
+    public MotionOscillators(LayerStore layers, int paletteSize) {
+        this.layers = layers;
+        this.paletteSize = paletteSize;
+        this.colorTurnsPerSecond = COLOR_SPEED / paletteSize;
+        for (int i = 0; i < SPEEDS.length; i++) {
+            turnsPerSecond[i] = SPEEDS[i] / TURN;
+        }
+        updateTrig();
+    }
+
+    // Seeks to an absolute time, for renderers that need frame i at exactly i / fps
+    public void setTime(double time) {
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = toPhase(time * turnsPerSecond[i]);
+        }
+        colorPhase = toPhase(time * colorTurnsPerSecond);
+        updateTrig();
+    }
+
+    // Moves every oscillator forward by dt seconds
+    public void advance(double dt) {
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] += toPhase(dt * turnsPerSecond[i]);
+        }
+        colorPhase += toPhase(dt * colorTurnsPerSecond);
+        updateTrig();
+    }
+
+    // Turns to a phase in 2^-64 turns, wrapped into [-1/2, 1/2) so the cast can't saturate
+    private static long toPhase(double turns) {
+        double wrapped = turns - Math.floor(turns + 0.5);
+        return (long) (wrapped * 0x1p64);
+    }
+
+    private static double toTurns(long phase) {
+        return phase * 0x1p-64;
+    }
+
+    private void updateTrig() {
+        for (int i = 0; i < phases.length; i++) {
+            double angle = toTurns(phases[i]) * TURN;
+            sin[i] = Math.sin(angle);
+            cos[i] = Math.cos(angle);
+        }
+    }
+
+    public double xOffset(int layer) {
+        LayerStore l = layers;
+        return sin[X1] * l.xSin1[layer] + cos[X1] * l.xCos1[layer]
+                + cos[X2] * l.xCos2[layer] + sin[X2] * l.xSin2[layer];
+    }
+
+    public double yOffset(int layer) {
+        LayerStore l = layers;
+        return sin[Y1] * l.ySin1[layer] + cos[Y1] * l.yCos1[layer]
+                + cos[Y2] * l.yCos2[layer] + sin[Y2] * l.ySin2[layer];
+    }
+
+    // The x and y offsets of the first count layers
+    public void offsets(int count, double[] x, double[] y) {
+        double s1 = sin[X1], c1 = cos[X1], c2 = cos[X2], s2 = sin[X2];
+        double[] a = layers.xSin1, b = layers.xCos1, c = layers.xCos2, d = layers.xSin2;
+        for (int i = 0; i < count; i++) {
+            x[i] = s1 * a[i] + c1 * b[i] + c2 * c[i] + s2 * d[i];
+        }
+        s1 = sin[Y1];
+        c1 = cos[Y1];
+        c2 = cos[Y2];
+        s2 = sin[Y2];
+        a = layers.ySin1;
+        b = layers.yCos1;
+        c = layers.yCos2;
+        d = layers.ySin2;
+        for (int i = 0; i < count; i++) {
+            y[i] = s1 * a[i] + c1 * b[i] + c2 * c[i] + s2 * d[i];
+        }
+    }
+
+    public double scale() {
+        return 0.8 + sin[SCALE] * 0.3;
+    }
+
+    // Degrees
+    public double rotation() {
+        return sin[ROTATION] * 15;
+    }
+
+    // Same as AuroraMath.colorProgress, in [0, paletteSize)
+    public double colorProgress(int layer) {
+        return wrapProgress(colorCycle() + layers.colorOffset[layer]);
+    }
+
+    // The color progress of the first count layers
+    public void colorProgress(int count, double[] progress) {
+        double cycle = colorCycle();
+        double[] offset = layers.colorOffset;
+        for (int i = 0; i < count; i++) {
+            progress[i] = wrapProgress(cycle + offset[i]);
+        }
+    }
+
+    // Palette entries the shared color cycle has run, in [0, paletteSize)
+    private double colorCycle() {
+        double turns = toTurns(colorPhase);
+        return (turns < 0 ? turns + 1 : turns) * paletteSize;
+    }
+
+    // Both parts are below paletteSize, so one subtraction wraps the sum
+    private double wrapProgress(double progress) {
+        progress = progress >= paletteSize ? progress - paletteSize : progress;
+        return progress < paletteSize ? progress : 0;
+    }
+
+    public int getLayerCount() {
+        return layers.size;
+    }
+}
@@ -0,0 +1,80 @@
+package inc.nomard.aurora_demo;
+
+import javafx.application.Application;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.input.KeyCode;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.TilePane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+import javafx.stage.Stage;
+
+/**
+ * Many views of one {@link AuroraEngine}: a full window background, a
+ * row of cards with their own aurora behind them, and more windows on
+ * demand. A adds a card, R removes the last one, N opens another window.
+ */
+public class MultiViewAurora extends Application {
+
+    private static final int NUM_LAYERS = 6;
+    private static final RenderScale RENDER_SCALE = RenderScale.HALF;
+    private static final double MAX_FPS = 60; // 0 follows the display's refresh rate
+    private static final int INITIAL_CARDS = 3;
+    private static final double CARD_WIDTH = 240;
+    private static final double CARD_HEIGHT = 160;
+
+    private final AuroraEngine engine = new AuroraEngine(NUM_LAYERS, RENDER_SCALE, MAX_FPS);
+    private final TilePane cards = new TilePane(24, 24);
+    private int windows;
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+
+    @Override
+    public void start(Stage stage) {
+        cards.setPadding(new Insets(48));
+        cards.setPrefTileWidth(CARD_WIDTH);
+        cards.setPrefTileHeight(CARD_HEIGHT);
+        for (int i = 0; i < INITIAL_CARDS; i++) {
+            addCard();
+        }
+        StackPane root = new StackPane(engine.createView(), cards);
+
+        Scene scene = new Scene(root, 1280, 720);
+        scene.setOnKeyPressed(event -> {
+            if (event.getCode() == KeyCode.A) {
+                addCard();
+            } else if (event.getCode() == KeyCode.R && !cards.getChildren().isEmpty()) {
+                cards.getChildren().remove(cards.getChildren().size() - 1);
+            } else if (event.getCode() == KeyCode.N) {
+                openWindow();
+            }
+        });
+        stage.setTitle("Aurora views");
+        stage.setScene(scene);
+        stage.show();
+    }
+
+    // A card is a small view with a caption on top, the engine isn't asked for anything more
+    private void addCard() {
+        Text caption = new Text("View " + (cards.getChildren().size() + 1));
+        caption.setFill(Color.WHITE);
+        caption.setFont(Font.font(20));
+        cards.getChildren().add(new StackPane(engine.createView(), caption));
+    }
+
+    private void openWindow() {
+        Stage window = new Stage();
+        window.setTitle("Aurora window " + ++windows);
+        window.setScene(new Scene(new StackPane(engine.createView()), 480, 320));
+        window.show();
+    }
+
+    @Override
+    public void stop() {
+        engine.close();
+    }
+}
@@ -0,0 +1,157 @@
+package inc.nomard.aurora_demo;
+
+import javafx.beans.value.ObservableValue;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.Node;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.WritableImage;
+import javafx.scene.layout.Background;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.transform.Scale;
+import javafx.scene.transform.Transform;
+
+/**
+ * Holds node based layers outside the scene and snapshots them into a
+ * reduced resolution image every frame. The image is shown through an
+ * {@link ImageView} that smoothly upscales it to the scene size.
+ *
+ * <p>Layers added to {@link #getLayers()} must be laid out in the reduced
+ * coordinate space: positions, radii and blur radii multiplied by the
+ * {@link RenderScale} factor.
+ *
+ * <p>The snapshot is taken at the pixels per unit the
+ * {@link ResolutionPolicy} picks for the output scale of the window
+ * {@link #getNode()} is shown in, and follows it across monitors. When
+ * that comes down to the screen's own resolution at {@link RenderScale#FULL}
+ * the layers are shown directly instead and {@link #render()} does nothing.
+ *
+ * <p>{@link #stretch} scales whatever is shown to a new size without
+ * touching the layers or the image, as a stand-in while a window is being
+ * resized, until {@link #resize} rebuilds at the final size.
+ */
+public class OffscreenLayerSurface {
+
+    private final RenderScale renderScale;
+    private final Pane host = new Pane();
+    private final Pane layers = new Pane();
+    private final ImageView view = new ImageView();
+    private final Scale standIn = new Scale(1, 1);
+    private final SnapshotParameters parameters = new SnapshotParameters();
+    private final ObservableValue<Number> windowScale = OutputScale.of(host);
+    private ResolutionPolicy resolutionPolicy = ResolutionPolicy.LOGICAL;
+    private double outputScale = 1;
+    private double width, height;
+    private WritableImage image;
+
+    public OffscreenLayerSurface(RenderScale renderScale, Background background) {
+        this.renderScale = renderScale;
+        layers.setBackground(background);
+        layers.setManaged(false);
+        parameters.setFill(Color.TRANSPARENT);
+        view.setSmooth(true);
+        view.setPreserveRatio(false);
+        view.setMouseTransparent(true);
+        view.setManaged(false);
+        host.setPickOnBounds(false);
+        host.getTransforms().add(standIn);
+        windowScale.addListener((obs, ov, nv) -> setOutputScale(nv.doubleValue()));
+        update();
+    }
+
+    public Pane getLayers() {
+        return layers;
+    }
+
+    public ImageView getView() {
+        return view;
+    }
+
+    // What to add to the scene, shows either the layers or the image of them
+    public Node getNode() {
+        return host;
+    }
+
+    public RenderScale getRenderScale() {
+        return renderScale;
+    }
+
+    public ResolutionPolicy getResolutionPolicy() {
+        return resolutionPolicy;
+    }
+
+    public void setResolutionPolicy(ResolutionPolicy resolutionPolicy) {
+        this.resolutionPolicy = resolutionPolicy;
+        update();
+    }
+
+    public void setOutputScale(double outputScale) {
+        this.outputScale = outputScale;
+        update();
+    }
+
+    // True while the layers are in the scene rather than snapshotted
+    public boolean isDirect() {
+        return image == null;
+    }
+
+    public void resize(double width, double height) {
+        this.width = width;
+        this.height = height;
+        update();
+    }
+
+    // Shows the last size scaled to width x height until the next resize
+    public void stretch(double width, double height) {
+        if (this.width <= 0 || this.height <= 0) {
+            resize(width, height);
+            return;
+        }
+        standIn.setX(width / this.width);
+        standIn.setY(height / this.height);
+    }
+
+    public void render() {
+        if (image != null) {
+            layers.snapshot(parameters, image);
+        }
+    }
+
+    private void update() {
+        standIn.setX(1);
+        standIn.setY(1);
+        double pixelsPerUnit = resolutionPolicy.pixelsPerUnit(outputScale);
+        if (renderScale == RenderScale.FULL && pixelsPerUnit >= outputScale) {
+            // The screen would draw the layers at this resolution anyway, skip the snapshot
+            image = null;
+            view.setImage(null);
+            layers.resize(width, height);
+            show(layers);
+            return;
+        }
+
+        int w = renderScale.scaledSize(width, pixelsPerUnit);
+        int h = renderScale.scaledSize(height, pixelsPerUnit);
+        view.setFitWidth(width);
+        view.setFitHeight(height);
+        show(view);
+        if (image != null && image.getWidth() == w && image.getHeight() == h
+                && parameters.getTransform().getMxx() == pixelsPerUnit) {
+            return;
+        }
+
+        // Layers stay in reduced scene units, the transform takes them to image pixels
+        layers.resize(renderScale.scaledSize(width), renderScale.scaledSize(height));
+        parameters.setTransform(Transform.scale(pixelsPerUnit, pixelsPerUnit));
+        parameters.setViewport(new Rectangle2D(0, 0, w, h));
+        image = new WritableImage(w, h);
+        view.setImage(image);
+    }
+
+    private void show(Node node) {
+        if (host.getChildren().size() != 1 || host.getChildren().get(0) != node) {
+            host.getChildren().setAll(node);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package inc.nomard.aurora_demo;
+
+import javafx.beans.binding.Bindings;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.stage.Window;
+
+/**
+ * The render scale of the screen a node is shown on, from
+ * {@link Window#getOutputScaleX()} and {@link Window#getOutputScaleY()}.
+ * Both follow the window when it moves to a monitor with another scale.
+ */
+public final class OutputScale {
+
+    private OutputScale() {
+    }
+
+    // The larger of the two output scales of the node's window, 1 while it isn't in one. Keep a
+    // reference for as long as it is listened to, the chain only lives through its observers
+    public static ObservableValue<Number> of(Node node) {
+        return node.sceneProperty()
+                .flatMap(Scene::windowProperty)
+                .flatMap(window -> Bindings.max(window.outputScaleXProperty(), window.outputScaleYProperty()))
+                .orElse(1.0);
+    }
+}
@@ -0,0 +1,81 @@
+package inc.nomard.aurora_demo;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Application;
+import javafx.scene.Scene;
+import javafx.scene.layout.Pane;
+import javafx.stage.Stage;
+
+public class ParticleAurora extends Application {
+
+    private static final int NUM_PARTICLES = 1500;
+    private static final double BLOB_RADIUS = 40;
+    private static final double BLOB_OPACITY = 0.18; // low, hundreds of blobs overlap on every pixel
+    private static final double INTERACTION_RADIUS = 60;
+    private static final RenderScale RENDER_SCALE = RenderScale.QUARTER; // blobs have no detail to lose
+    private static final double MAX_FPS = 60; // 0 follows the display's refresh rate
+
+    private final ParticleField particles =
+            new ParticleField(NUM_PARTICLES, INTERACTION_RADIUS, DeterministicMode.newRandom());
+    private final ParticleSplatter splatter = new ParticleSplatter(BLOB_RADIUS, BLOB_OPACITY);
+    private final AuroraSurface surface = new AuroraSurface();
+    private final FrameClock clock = DeterministicMode.newClock(MAX_FPS);
+    private AnimationTimer animationTimer;
+    private ResizeCoalescer resizes;
+    private double width;
+    private double height;
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+
+    @Override
+    public void start(Stage stage) {
+        Pane root = new Pane(surface.getView());
+        surface.setRenderScale(RENDER_SCALE);
+        setupAnimation();
+
+        Scene scene = new Scene(root, 1280, 720);
+        stage.setScene(scene);
+        stage.show();
+        new VisibilityThrottle(stage, root, animationTimer, clock);
+
+        setupResizeListeners(scene);
+        updateSize(scene.getWidth(), scene.getHeight());
+    }
+
+    private void setupAnimation() {
+        animationTimer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if (clock.tick(now)) {
+                    particles.step(clock.getStep(), width, height);
+                    surface.render(particles, splatter);
+                }
+            }
+        };
+        animationTimer.start();
+    }
+
+    private void setupResizeListeners(Scene scene) {
+        // A drag only stretches the last frame, the buffers are reallocated once it settles
+        resizes = new ResizeCoalescer(scene.widthProperty(), scene.heightProperty(),
+                surface::stretch, this::updateSize);
+    }
+
+    private void updateSize(double width, double height) {
+        this.width = width;
+        this.height = height;
+        surface.resize(width, height);
+    }
+
+    @Override
+    public void stop() {
+        if (animationTimer != null) {
+            animationTimer.stop();
+        }
+        if (resizes != null) {
+            resizes.dispose();
+        }
+    }
+}
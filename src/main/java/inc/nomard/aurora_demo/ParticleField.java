@@ -0,0 +1,171 @@
+package inc.nomard.aurora_demo;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Hundreds to thousands of small aurora blobs as a structure of arrays.
+ * Blobs drift with a slowly turning flow field of horizontal curtains,
+ * push apart when they crowd and pull together at mid range, so they
+ * gather into bands instead of spreading evenly. Pairs within range are
+ * found through a {@link SpatialHashGrid} whose cells are one interaction
+ * radius wide. Positions are in scene pixels and wrap at the edges.
+ */
+public final class ParticleField {
+
+    private static final double REPULSION = 2500; // px/s² when touching
+    private static final double ATTRACTION = 30; // px/s² at its strongest
+    private static final double DAMPING = 1.2; // per second, towards the flow
+    private static final double FLOW_SPEED = 70; // px/s
+    private static final double FLOW_SCALE = 0.006; // radians per px
+    private static final double FLOW_TURN_X = 0.13; // rad/s
+    private static final double FLOW_TURN_Y = 0.07; // rad/s
+    private static final double COLOR_SPEED = 0.15; // palette entries per second
+    private static final double COLOR_SPREAD = 2; // palette entries across the width
+    private static final double MAX_STEP = 1 / 30.0; // longer frames are slowed down, not extrapolated
+    private static final double TURN = 2 * Math.PI;
+
+    final int count;
+    final double[] x, y;
+    final double[] vx, vy;
+    private final double[] ax, ay;
+    private final double[] colorOffset;
+    final int[] color;
+    private final int[] palette;
+    private final SpatialHashGrid grid;
+    private final double interactionRadius;
+    private final double repulsionRadius;
+    private final double invRepulsion;
+    private final double invAttraction;
+    private final SpatialHashGrid.PairVisitor pairForce = this::addPairForce;
+    private double width, height;
+    private double flowPhaseX, flowPhaseY, colorCycle;
+    private long pairChecks;
+    private long steps;
+
+    public ParticleField(int count, double interactionRadius, Random rand) {
+        this.count = count;
+        this.interactionRadius = interactionRadius;
+        this.repulsionRadius = interactionRadius * 0.4;
+        this.invRepulsion = 1 / repulsionRadius;
+        this.invAttraction = 1 / (interactionRadius - repulsionRadius);
+        this.grid = new SpatialHashGrid(interactionRadius);
+        this.palette = AuroraMath.PALETTE_ARGB;
+        x = new double[count];
+        y = new double[count];
+        vx = new double[count];
+        vy = new double[count];
+        ax = new double[count];
+        ay = new double[count];
+        colorOffset = new double[count];
+        color = new int[count];
+
+        // Unit square until the first step knows the scene size
+        for (int i = 0; i < count; i++) {
+            x[i] = rand.nextDouble();
+            y[i] = rand.nextDouble();
+            colorOffset[i] = rand.nextDouble();
+        }
+        width = 1;
+        height = 1;
+    }
+
+    // Moves every blob on by dt seconds in a scene of width x height
+    public void step(double dt, double width, double height) {
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        fit(width, height);
+        dt = Math.min(dt, MAX_STEP);
+        flowPhaseX = (flowPhaseX + FLOW_TURN_X * dt) % TURN;
+        flowPhaseY = (flowPhaseY + FLOW_TURN_Y * dt) % TURN;
+        colorCycle = (colorCycle + COLOR_SPEED * dt) % palette.length;
+
+        grid.build(x, y, count, width, height);
+        interact();
+        integrate(dt);
+        updateColors();
+        steps++;
+    }
+
+    // Scales the positions along when the scene is resized
+    private void fit(double width, double height) {
+        if (width == this.width && height == this.height) {
+            return;
+        }
+        double sx = width / this.width;
+        double sy = height / this.height;
+        for (int i = 0; i < count; i++) {
+            x[i] *= sx;
+            y[i] *= sy;
+        }
+        this.width = width;
+        this.height = height;
+    }
+
+    // Accumulates the pair forces, each pair once
+    private void interact() {
+        Arrays.fill(ax, 0);
+        Arrays.fill(ay, 0);
+        pairChecks += grid.forEachPair(x, y, interactionRadius, pairForce);
+    }
+
+    private void addPairForce(int i, int j, double dx, double dy, double d2) {
+        if (d2 < 1e-6) {
+            return;
+        }
+        double d = Math.sqrt(d2);
+        // Pushes apart inside the repulsion radius, pulls together beyond it,
+        // the pull rising and falling back to zero at the interaction radius
+        double force;
+        if (d < repulsionRadius) {
+            force = -REPULSION * (1 - d * invRepulsion);
+        } else {
+            double t = (d - repulsionRadius) * invAttraction;
+            force = ATTRACTION * 4 * t * (1 - t);
+        }
+        double f = force / d;
+        ax[i] += f * dx;
+        ay[i] += f * dy;
+        ax[j] -= f * dx;
+        ay[j] -= f * dy;
+    }
+
+    private void integrate(double dt) {
+        for (int i = 0; i < count; i++) {
+            // Curtains: horizontal flow that changes with height, a weaker vertical sway along x
+            double flowX = FLOW_SPEED * Math.sin(y[i] * FLOW_SCALE + flowPhaseX);
+            double flowY = FLOW_SPEED * 0.4 * Math.cos(x[i] * FLOW_SCALE + flowPhaseY);
+            vx[i] += (ax[i] + (flowX - vx[i]) * DAMPING) * dt;
+            vy[i] += (ay[i] + (flowY - vy[i]) * DAMPING) * dt;
+            x[i] = wrap(x[i] + vx[i] * dt, width);
+            y[i] = wrap(y[i] + vy[i] * dt, height);
+        }
+    }
+
+    private static double wrap(double value, double size) {
+        if (value < 0) {
+            value += size;
+        } else if (value >= size) {
+            value -= size;
+        }
+        return value < 0 || value >= size ? 0 : value;
+    }
+
+    private void updateColors() {
+        double spread = COLOR_SPREAD / width;
+        for (int i = 0; i < count; i++) {
+            double progress = (colorCycle + colorOffset[i] + x[i] * spread) % palette.length;
+            color[i] = AuroraMath.colorAt(progress, palette);
+        }
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    // Pairs looked at per step on average, N² / 2 without the grid
+    public double getPairChecksPerStep() {
+        return steps == 0 ? 0 : pairChecks / (double) steps;
+    }
+}
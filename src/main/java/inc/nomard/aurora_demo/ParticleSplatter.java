@@ -0,0 +1,104 @@
+package inc.nomard.aurora_demo;
+
+import java.util.Arrays;
+
+/**
+ * Rasterizes a {@link ParticleField} into packed ARGB pixels by stamping
+ * one soft round sprite per blob and SCREEN-blending it over the
+ * background. The sprite is a table of integer weights with a smooth
+ * falloff, rebuilt only when its radius in surface pixels changes, so a
+ * blob costs a multiply and a blend per covered pixel and no blur pass.
+ * Blobs near an edge are stamped again across it, as the field wraps.
+ */
+public class ParticleSplatter {
+
+    private final double blobRadius;
+    private final double opacity;
+    private int spriteRadius = -1;
+    private int spriteSize;
+    // Weight per sprite pixel, 0 to 256
+    private int[] sprite = new int[0];
+
+    public ParticleSplatter(double blobRadius, double opacity) {
+        this.blobRadius = blobRadius;
+        this.opacity = opacity;
+    }
+
+    public void render(ParticleField field, int[] pixels, int width, int height, double pixelScale) {
+        int radius = Math.max(1, (int) Math.round(blobRadius * pixelScale));
+        if (radius != spriteRadius) {
+            buildSprite(radius);
+        }
+        Arrays.fill(pixels, 0, width * height, PixelRasterizer.BACKGROUND);
+
+        for (int p = 0; p < field.count; p++) {
+            int cx = (int) (field.x[p] * pixelScale);
+            int cy = (int) (field.y[p] * pixelScale);
+            int argb = field.color[p];
+            stamp(pixels, width, height, cx, cy, argb);
+
+            // Positions wrap at the edges, so a blob over one shows on the other side as well
+            int wrapX = cx < radius ? width : cx >= width - radius ? -width : 0;
+            int wrapY = cy < radius ? height : cy >= height - radius ? -height : 0;
+            if (wrapX != 0) {
+                stamp(pixels, width, height, cx + wrapX, cy, argb);
+            }
+            if (wrapY != 0) {
+                stamp(pixels, width, height, cx, cy + wrapY, argb);
+            }
+            if (wrapX != 0 && wrapY != 0) {
+                stamp(pixels, width, height, cx + wrapX, cy + wrapY, argb);
+            }
+        }
+    }
+
+    // The sprite centered on cx, cy, clipped to the pixels
+    private void stamp(int[] pixels, int width, int height, int cx, int cy, int argb) {
+        int radius = spriteRadius;
+        int r = (argb >> 16) & 0xFF;
+        int g = (argb >> 8) & 0xFF;
+        int b = argb & 0xFF;
+
+        int top = Math.max(0, cy - radius);
+        int bottom = Math.min(height - 1, cy + radius);
+        int left = Math.max(0, cx - radius);
+        int right = Math.min(width - 1, cx + radius);
+        for (int py = top; py <= bottom; py++) {
+            int row = py * width;
+            int spriteRow = (py - cy + radius) * spriteSize - cx + radius;
+            for (int px = left; px <= right; px++) {
+                int weight = sprite[spriteRow + px];
+                if (weight == 0) {
+                    continue;
+                }
+                int dst = pixels[row + px];
+                pixels[row + px] = 0xFF000000
+                        | screen((dst >> 16) & 0xFF, r * weight >> 8) << 16
+                        | screen((dst >> 8) & 0xFF, g * weight >> 8) << 8
+                        | screen(dst & 0xFF, b * weight >> 8);
+            }
+        }
+    }
+
+    // dst + src * (1 - dst) on 0-255 channels
+    private static int screen(int dst, int src) {
+        int product = src * (255 - dst) + 128;
+        return dst + ((product + (product >> 8)) >> 8);
+    }
+
+    // (1 - d²)² falloff, flat topped and with no visible rim
+    private void buildSprite(int radius) {
+        spriteRadius = radius;
+        spriteSize = 2 * radius + 1;
+        sprite = new int[spriteSize * spriteSize];
+        double scale = 256 * opacity;
+        for (int y = 0; y < spriteSize; y++) {
+            for (int x = 0; x < spriteSize; x++) {
+                double dx = (x - radius) / (double) radius;
+                double dy = (y - radius) / (double) radius;
+                double t = Math.max(0, 1 - (dx * dx + dy * dy));
+                sprite[y * spriteSize + x] = (int) Math.round(t * t * scale);
+            }
+        }
+    }
+}
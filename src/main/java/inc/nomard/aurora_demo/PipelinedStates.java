@@ -0,0 +1,119 @@
+package inc.nomard.aurora_demo;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Computes the layer states of the next frame on a worker while the FX
+ * thread applies the current one. Finished frames are published through a
+ * lock-free double buffer: the worker fills one set of states while the
+ * other holds the last published frame, and the pulse picks up whatever is
+ * published without waiting. At most one frame is in flight, a pulse that
+ * finds the worker busy simply reuses the states it has.
+ *
+ * <p>{@link #poll()} and {@link #request(double)} must be called from the
+ * same thread, normally the FX thread. Once the states exist a request
+ * allocates nothing itself, pair it with a {@link HandoffExecutor} to keep
+ * the executor from allocating either.
+ *
+ * @param <S> the mutable per-layer state, reused between frames
+ */
+public class PipelinedStates<S> {
+
+    public interface LayerComputer<S> {
+        // Runs on the worker, writes the state of one layer at the given time into state
+        void compute(int layer, double time, S state);
+    }
+
+    private final Executor executor;
+    private final LayerComputer<S> computer;
+    private final Frame<S>[] buffers;
+    private final AtomicReference<Frame<S>> published = new AtomicReference<>();
+    private final AtomicBoolean inFlight = new AtomicBoolean();
+    private final Runnable task = this::computeRequested;
+    private volatile Frame<S> requested;
+    private Frame<S> lastPublished;
+    private long skippedRequests;
+
+    @SuppressWarnings("unchecked")
+    public PipelinedStates(Executor executor, int layerCount, Supplier<S> factory, LayerComputer<S> computer) {
+        this.executor = executor;
+        this.computer = computer;
+        this.buffers = new Frame[]{new Frame<>(layerCount, factory), new Frame<>(layerCount, factory)};
+    }
+
+    // The newest frame finished since the last poll, or null
+    public Frame<S> poll() {
+        Frame<S> frame = published.getAndSet(null);
+        if (frame != null) {
+            lastPublished = frame;
+        }
+        return frame;
+    }
+
+    // Starts computing the frame at time, unless one is still in flight
+    public boolean request(double time) {
+        if (!inFlight.compareAndSet(false, true)) {
+            skippedRequests++;
+            return false;
+        }
+        // The worker only ever writes the buffer that isn't the last one handed out
+        Frame<S> target = buffers[0] == lastPublished ? buffers[1] : buffers[0];
+        Frame<S> pending = published.get();
+        if (target == pending) {
+            target = buffers[0] == target ? buffers[1] : buffers[0];
+        }
+        target.time = time;
+        requested = target;
+
+        try {
+            executor.execute(task);
+        } catch (RuntimeException e) {
+            inFlight.set(false);
+            throw e;
+        }
+        return true;
+    }
+
+    private void computeRequested() {
+        Frame<S> frame = requested;
+        try {
+            for (int i = 0; i < frame.states.length; i++) {
+                computer.compute(i, frame.time, frame.states[i]);
+            }
+            published.set(frame);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        } finally {
+            inFlight.set(false);
+        }
+    }
+
+    // Requests that found the previous frame still in flight
+    public long getSkippedRequests() {
+        return skippedRequests;
+    }
+
+    public static final class Frame<S> {
+        private final S[] states;
+        private double time;
+
+        @SuppressWarnings("unchecked")
+        private Frame(int layerCount, Supplier<S> factory) {
+            states = (S[]) new Object[layerCount];
+            for (int i = 0; i < layerCount; i++) {
+                states[i] = factory.get();
+            }
+        }
+
+        public S get(int layer) {
+            return states[layer];
+        }
+
+        public double getTime() {
+            return time;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package inc.nomard.aurora_demo;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Application;
+import javafx.scene.Scene;
+import javafx.scene.layout.Pane;
+import javafx.stage.Stage;
+
+public class PixelAurora extends Application {
+
+    private static final int NUM_LAYERS = 6;
+    private static final QualityLevel INITIAL_QUALITY = QualityLevel.HIGH;
+    private static final double FRAME_BUDGET_MS = 1000 / 60.0;
+
+    private final AuroraSimulation simulation = new AuroraSimulation(NUM_LAYERS);
+    private final TiledRasterizer rasterizer = new TiledRasterizer();
+    private final AuroraSurface surface = new AuroraSurface();
+    private AnimationTimer animationTimer;
+    private ResizeCoalescer resizes;
+    private final FrameClock clock = DeterministicMode.newClock(INITIAL_QUALITY.getMaxFps());
+    private final QualityGovernor governor = new QualityGovernor(FRAME_BUDGET_MS, INITIAL_QUALITY);
+    private double width;
+    private double height;
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+
+    @Override
+    public void start(Stage stage) {
+        Pane root = new Pane(surface.getView());
+        applyQuality(INITIAL_QUALITY);
+        // A seeded run compares frame times, so it stays at the initial quality
+        if (!DeterministicMode.isEnabled()) {
+            governor.levelProperty().addListener((obs, ov, nv) -> applyQuality(nv));
+        }
+        setupAnimation();
+
+        Scene scene = new Scene(root, 1280, 720);
+        stage.setScene(scene);
+        stage.show();
+        new VisibilityThrottle(stage, root, animationTimer, clock);
+
+        setupResizeListeners(scene);
+        updateSize(scene.getWidth(), scene.getHeight());
+    }
+
+    private void setupAnimation() {
+        animationTimer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if (clock.tick(now)) {
+                    long start = System.nanoTime();
+                    surface.render(simulation.advance(clock.getStep(), width, height), rasterizer);
+                    governor.recordRender(System.nanoTime() - start);
+                }
+                governor.pulse(now);
+            }
+        };
+        animationTimer.start();
+    }
+
+    // Blur iterations don't apply here, the rasterizer's falloff costs the same at any width
+    private void applyQuality(QualityLevel level) {
+        simulation.setActiveLayers(level.getLayerCount());
+        simulation.setBlurScale(level.getBlurScale());
+        surface.setRenderScale(level.getRenderScale());
+        clock.setMaxFps(level.getMaxFps());
+    }
+
+    private void setupResizeListeners(Scene scene) {
+        // A drag only stretches the last frame, the buffers are reallocated once it settles
+        resizes = new ResizeCoalescer(scene.widthProperty(), scene.heightProperty(),
+                surface::stretch, this::updateSize);
+    }
+
+    private void updateSize(double width, double height) {
+        this.width = width;
+        this.height = height;
+        surface.resize(width, height);
+    }
+
+    @Override
+    public void stop() {
+        if (animationTimer != null) {
+            animationTimer.stop();
+        }
+        rasterizer.close();
+        if (resizes != null) {
+            resizes.dispose();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package inc.nomard.aurora_demo;
+
+/**
+ * Rasterizes a {@link LayerFrame} into packed ARGB pixels. Each pixel
+ * evaluates every layer's radial gradient, softens the circle edge
+ * analytically over the layer's blur radius and SCREEN-blends the result,
+ * so the cost per pixel is fixed and does not grow with the blur radius.
+ * Rows are shaded by {@link RowKernels}, scalar or Vector API.
+ */
+public class PixelRasterizer {
+
+    static final int BACKGROUND = 0xFF0F0F0F;
+    static final float BASE_OPACITY = 0.7f;
+    static final int STOP_STRIDE = 12;
+
+    private static final RowKernels DEFAULT_KERNELS = RowKernels.select();
+
+    private final RowKernels kernels;
+
+    // Per layer constants in surface pixels, unpacked once per frame
+    int layers;
+    float[] gradientX = new float[0];
+    float[] gradientY = new float[0];
+    float[] centerX = new float[0];
+    float[] centerY = new float[0];
+    float[] radius = new float[0];
+    float[] invRadius = new float[0];
+    float[] invBlur = new float[0];
+    float[] stops = new float[0];
+
+    public PixelRasterizer() {
+        this(DEFAULT_KERNELS);
+    }
+
+    public PixelRasterizer(RowKernels kernels) {
+        this.kernels = kernels;
+    }
+
+    public void render(LayerFrame frame, int[] pixels, int width, int height, double pixelScale) {
+        prepare(frame, pixelScale);
+        renderRegion(pixels, width, 0, 0, width, height);
+    }
+
+    void prepare(LayerFrame frame, double pixelScale) {
+        ensureCapacity(frame.count);
+        layers = frame.count;
+        for (int l = 0; l < layers; l++) {
+            gradientX[l] = (float) (frame.gradientX[l] * pixelScale);
+            gradientY[l] = (float) (frame.gradientY[l] * pixelScale);
+            centerX[l] = (float) (frame.centerX[l] * pixelScale);
+            centerY[l] = (float) (frame.centerY[l] * pixelScale);
+            radius[l] = (float) (frame.radius[l] * pixelScale);
+            invRadius[l] = radius[l] > 0 ? 1 / radius[l] : 0;
+            invBlur[l] = (float) (1 / Math.max(1, frame.blur[l] * pixelScale));
+            unpack(frame.innerStop[l], stops, l * STOP_STRIDE);
+            unpack(frame.midStop[l], stops, l * STOP_STRIDE + 4);
+            unpack(frame.outerStop[l], stops, l * STOP_STRIDE + 8);
+        }
+    }
+
+    void renderRegion(int[] pixels, int stride, int x0, int y0, int x1, int y1) {
+        for (int y = y0; y < y1; y++) {
+            kernels.renderRow(this, pixels, y * stride + x0, 0, x1 - x0, x0, y + 0.5f);
+        }
+    }
+
+    public String getKernelName() {
+        return kernels.name();
+    }
+
+    private void ensureCapacity(int count) {
+        if (gradientX.length >= count) {
+            return;
+        }
+        gradientX = new float[count];
+        gradientY = new float[count];
+        centerX = new float[count];
+        centerY = new float[count];
+        radius = new float[count];
+        invRadius = new float[count];
+        invBlur = new float[count];
+        stops = new float[count * STOP_STRIDE];
+    }
+
+    private static void unpack(int argb, float[] target, int offset) {
+        target[offset] = ((argb >> 16) & 0xFF) / 255f;
+        target[offset + 1] = ((argb >> 8) & 0xFF) / 255f;
+        target[offset + 2] = (argb & 0xFF) / 255f;
+        target[offset + 3] = (argb >>> 24) / 255f;
+    }
+}
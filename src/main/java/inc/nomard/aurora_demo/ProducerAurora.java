@@ -0,0 +1,50 @@
+package inc.nomard.aurora_demo;
+
+import javafx.application.Application;
+import javafx.scene.Scene;
+import javafx.scene.layout.Pane;
+import javafx.stage.Stage;
+
+public class ProducerAurora extends Application {
+
+    private static final int NUM_LAYERS = 6;
+    private static final RenderScale RENDER_SCALE = RenderScale.QUARTER;
+    private static final double TARGET_FPS = 60;
+
+    private final TiledRasterizer rasterizer = new TiledRasterizer();
+    private final TripleBufferedSurface surface =
+            new TripleBufferedSurface(new AuroraSimulation(NUM_LAYERS), rasterizer, RENDER_SCALE, TARGET_FPS);
+    private ResizeCoalescer resizes;
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+
+    @Override
+    public void start(Stage stage) {
+        Pane root = new Pane(surface.getView());
+
+        Scene scene = new Scene(root, 1280, 720);
+        stage.setScene(scene);
+        stage.show();
+
+        setupResizeListeners(scene);
+        surface.resize(scene.getWidth(), scene.getHeight());
+        surface.start();
+    }
+
+    private void setupResizeListeners(Scene scene) {
+        // A drag only stretches the frames on screen, the producer gets new buffers once it settles
+        resizes = new ResizeCoalescer(scene.widthProperty(), scene.heightProperty(),
+                surface::stretch, surface::resize);
+    }
+
+    @Override
+    public void stop() {
+        surface.close();
+        rasterizer.close();
+        if (resizes != null) {
+            resizes.dispose();
+        }
+    }
+}
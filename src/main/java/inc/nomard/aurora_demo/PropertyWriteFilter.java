@@ -0,0 +1,112 @@
+package inc.nomard.aurora_demo;
+
+import javafx.scene.paint.Color;
+
+/**
+ * Decides whether a new node property value is far enough from the one on
+ * the node to be worth writing. Every write invalidates bounds, transforms
+ * or effect caches and marks a dirty region for Prism to sync and redraw,
+ * and most per-frame changes of a slow aurora are sub-pixel. Thresholds are
+ * perceptual: pixels for positions and blur radii, a ratio for scale and
+ * CIE76 delta E in Lab for colors.
+ *
+ * <p>The {@code ...Changed} checks only compare, {@link #write(boolean)}
+ * counts the outcome per property, so a property that depends on several
+ * values is counted once. Not thread safe, use from the FX thread.
+ */
+public class PropertyWriteFilter {
+
+    // D65 white point
+    private static final double WHITE_X = 0.95047;
+    private static final double WHITE_Z = 1.08883;
+
+    private final double positionPx;
+    private final double scaleRatio;
+    private final double deltaE;
+    private final double[] labA = new double[3];
+    private final double[] labB = new double[3];
+    private long writes;
+    private long suppressed;
+
+    public PropertyWriteFilter(double positionPx, double scaleRatio, double deltaE) {
+        this.positionPx = positionPx;
+        this.scaleRatio = scaleRatio;
+        this.deltaE = deltaE;
+    }
+
+    // Positions, sizes and blur radii, in pixels
+    public boolean positionChanged(double current, double next) {
+        return Math.abs(next - current) >= positionPx;
+    }
+
+    public boolean scaleChanged(double current, double next) {
+        return current == 0 || Math.abs(next / current - 1) >= scaleRatio;
+    }
+
+    // A rotation in degrees, judged by how far it moves a point at distance radius from the pivot
+    public boolean rotationChanged(double current, double next, double radius) {
+        return Math.abs(Math.toRadians(next - current)) * radius >= positionPx;
+    }
+
+    public boolean colorChanged(Color current, Color next) {
+        if (current == null) {
+            return true;
+        }
+        toLab(current, labA);
+        toLab(next, labB);
+        double dl = labA[0] - labB[0];
+        double da = labA[1] - labB[1];
+        double db = labA[2] - labB[2];
+        // Opacity has no Lab coordinate, 1 percent of it counts like one delta E
+        double dOpacity = (current.getOpacity() - next.getOpacity()) * 100;
+        return dl * dl + da * da + db * db + dOpacity * dOpacity >= deltaE * deltaE;
+    }
+
+    // Counts one property write, or one suppressed write, and returns whether to write
+    public boolean write(boolean write) {
+        if (write) {
+            writes++;
+        } else {
+            suppressed++;
+        }
+        return write;
+    }
+
+    public long getWrites() {
+        return writes;
+    }
+
+    public long getSuppressedWrites() {
+        return suppressed;
+    }
+
+    public double getSuppressedShare() {
+        long total = writes + suppressed;
+        return total == 0 ? 0 : suppressed / (double) total;
+    }
+
+    private static void toLab(Color color, double[] lab) {
+        double r = linear(color.getRed());
+        double g = linear(color.getGreen());
+        double b = linear(color.getBlue());
+
+        double x = (0.4124 * r + 0.3576 * g + 0.1805 * b) / WHITE_X;
+        double y = 0.2126 * r + 0.7152 * g + 0.0722 * b;
+        double z = (0.0193 * r + 0.1192 * g + 0.9505 * b) / WHITE_Z;
+
+        double fx = labF(x);
+        double fy = labF(y);
+        double fz = labF(z);
+        lab[0] = 116 * fy - 16;
+        lab[1] = 500 * (fx - fy);
+        lab[2] = 200 * (fy - fz);
+    }
+
+    private static double linear(double c) {
+        return c <= 0.04045 ? c / 12.92 : Math.pow((c + 0.055) / 1.055, 2.4);
+    }
+
+    private static double labF(double t) {
+        return t > 216.0 / 24389 ? Math.cbrt(t) : (24389.0 / 27 * t + 16) / 116;
+    }
+}
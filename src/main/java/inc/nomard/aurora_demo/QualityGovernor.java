@@ -0,0 +1,167 @@
+package inc.nomard.aurora_demo;
+
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Steps the {@link QualityLevel} down when frames get too expensive and
+ * back up when there is headroom, to hold a frame time budget on slow
+ * machines. Two rolling averages are kept: the interval between pulses,
+ * which grows when the FX or render thread can't keep up, and the time the
+ * aurora itself takes to render.
+ *
+ * <p>Stepping down needs a full window over budget, stepping up needs both
+ * costs far below it for several seconds, and every change is followed by a
+ * hold period. A level that has to be left again right after stepping up
+ * doubles the wait before the next attempt, so the level does not
+ * oscillate. Call from the FX thread.
+ */
+public class QualityGovernor {
+
+    private static final int WINDOW = 30;
+    // Share of the budget the aurora may take, the rest belongs to the UI on top of it
+    private static final double RENDER_SHARE = 0.5;
+    // Pulses this much longer than the budget on average mean frames are being missed
+    private static final double PULSE_SLACK = 1.5;
+    // Stepping up needs the costs below these fractions of what stepping down tolerates
+    private static final double UPGRADE_HEADROOM = 0.4;
+    private static final double UPGRADE_PULSE_SLACK = 1.1;
+    private static final long HOLD_NANOS = TimeUnit.SECONDS.toNanos(2);
+    private static final long UPGRADE_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final long MAX_UPGRADE_NANOS = TimeUnit.MINUTES.toNanos(2);
+
+    private final ReadOnlyObjectWrapper<QualityLevel> level;
+    private final RollingAverage pulseCost = new RollingAverage();
+    private final RollingAverage renderCost = new RollingAverage();
+    private long budgetNanos;
+    private long lastPulse = -1;
+    private long lastChange;
+    private long withinUpgradeSince = -1;
+    private long upgradeNanos = UPGRADE_NANOS;
+    private boolean lastChangeWasUpgrade;
+    private int levelChanges;
+
+    public QualityGovernor(double budgetMillis, QualityLevel initial) {
+        this.level = new ReadOnlyObjectWrapper<>(this, "level", initial);
+        setBudget(budgetMillis);
+    }
+
+    public void setBudget(double budgetMillis) {
+        budgetNanos = (long) (budgetMillis * TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    public double getBudget() {
+        return budgetNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    // Every AnimationTimer pulse, including the ones a FrameClock cap skips
+    public void pulse(long now) {
+        if (lastPulse >= 0 && now - lastPulse < HOLD_NANOS) {
+            pulseCost.add(now - lastPulse);
+        } else {
+            // First pulse, or the timer was paused: not a slow frame, start a fresh hold
+            lastChange = now;
+        }
+        lastPulse = now;
+        evaluate(now);
+    }
+
+    // Time spent rendering one frame of the aurora
+    public void recordRender(long nanos) {
+        renderCost.add(nanos);
+    }
+
+    private void evaluate(long now) {
+        if (!pulseCost.isFull() || now - lastChange < HOLD_NANOS) {
+            return;
+        }
+        double pulse = pulseCost.average();
+        double render = renderCost.average();
+
+        if (pulse > budgetNanos * PULSE_SLACK || render > budgetNanos * RENDER_SHARE) {
+            // Stepping up didn't last, wait longer before trying that level again
+            if (lastChangeWasUpgrade && now - lastChange < 3 * HOLD_NANOS) {
+                upgradeNanos = Math.min(MAX_UPGRADE_NANOS, upgradeNanos * 2);
+            }
+            lastChangeWasUpgrade = false;
+            change(level.get().lower(), now);
+            return;
+        }
+
+        boolean headroom = pulse < budgetNanos * UPGRADE_PULSE_SLACK
+                && render < budgetNanos * RENDER_SHARE * UPGRADE_HEADROOM;
+        if (!headroom) {
+            withinUpgradeSince = -1;
+        } else if (withinUpgradeSince < 0) {
+            withinUpgradeSince = now;
+        } else if (now - withinUpgradeSince >= upgradeNanos) {
+            lastChangeWasUpgrade = level.get() != QualityLevel.ULTRA;
+            change(level.get().higher(), now);
+        }
+    }
+
+    private void change(QualityLevel next, long now) {
+        lastChange = now;
+        withinUpgradeSince = -1;
+        if (next == level.get()) {
+            return;
+        }
+        // Costs measured at the old level say nothing about the new one
+        pulseCost.clear();
+        renderCost.clear();
+        levelChanges++;
+        level.set(next);
+    }
+
+    public ReadOnlyObjectProperty<QualityLevel> levelProperty() {
+        return level.getReadOnlyProperty();
+    }
+
+    public QualityLevel getLevel() {
+        return level.get();
+    }
+
+    public double getPulseMillis() {
+        return pulseCost.average() / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public double getRenderMillis() {
+        return renderCost.average() / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public int getLevelChanges() {
+        return levelChanges;
+    }
+
+    private static final class RollingAverage {
+        private final long[] samples = new long[WINDOW];
+        private int next;
+        private int count;
+        private long sum;
+
+        void add(long sample) {
+            sum += sample - samples[next];
+            samples[next] = sample;
+            next = (next + 1) % WINDOW;
+            count = Math.min(count + 1, WINDOW);
+        }
+
+        boolean isFull() {
+            return count == WINDOW;
+        }
+
+        double average() {
+            return count == 0 ? 0 : sum / (double) count;
+        }
+
+        void clear() {
+            Arrays.fill(samples, 0);
+            next = 0;
+            count = 0;
+            sum = 0;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package inc.nomard.aurora_demo;
+
+/**
+ * The steps {@link QualityGovernor} moves between, best first. Each one sets
+ * every quality knob at once: how many layers are drawn, how wide and how
+ * often the layers are blurred, the internal render scale and the highest
+ * update rate.
+ */
+public enum QualityLevel {
+    ULTRA(6, 1.0, 3, RenderScale.HALF, 0),
+    HIGH(6, 1.0, 3, RenderScale.QUARTER, 60),
+    MEDIUM(5, 0.8, 2, RenderScale.QUARTER, 60),
+    LOW(4, 0.6, 2, RenderScale.EIGHTH, 30),
+    MINIMAL(3, 0.5, 1, RenderScale.EIGHTH, 24);
+
+    private final int layerCount;
+    private final double blurScale;
+    private final int blurIterations;
+    private final RenderScale renderScale;
+    private final double maxFps;
+
+    QualityLevel(int layerCount, double blurScale, int blurIterations, RenderScale renderScale, double maxFps) {
+        this.layerCount = layerCount;
+        this.blurScale = blurScale;
+        this.blurIterations = blurIterations;
+        this.renderScale = renderScale;
+        this.maxFps = maxFps;
+    }
+
+    public int getLayerCount() {
+        return layerCount;
+    }
+
+    // Multiplies the blur radius range
+    public double getBlurScale() {
+        return blurScale;
+    }
+
+    public int getBlurIterations() {
+        return blurIterations;
+    }
+
+    public RenderScale getRenderScale() {
+        return renderScale;
+    }
+
+    // 0 follows the display's refresh rate
+    public double getMaxFps() {
+        return maxFps;
+    }
+
+    public QualityLevel lower() {
+        return this == MINIMAL ? this : values()[ordinal() + 1];
+    }
+
+    public QualityLevel higher() {
+        return this == ULTRA ? this : values()[ordinal() - 1];
+    }
+}
@@ -0,0 +1,165 @@
+package inc.nomard.aurora_demo;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+import java.util.Arrays;
+
+/**
+ * Pre-blurred radial gradient discs. A layer only translates, scales,
+ * rotates and changes tint between frames, so its blurred falloff is
+ * rendered once per (blur radius, quality, tint, gradient offset) into a
+ * small image and drawn as a scaled copy.
+ *
+ * <p>The gradient center sits off the disc center along +x, the sprite is
+ * rotated to point it where the layer needs it. Tints are quantized along
+ * the palette cycle and offsets to {@link #OFFSET_STEPS} per disc radius,
+ * so the cache stays bounded by blur radii x qualities x
+ * {@code palette.length * TINTS_PER_COLOR} x the offset steps in use.
+ * Sprites are only rebuilt when the radius (the scene size) or the palette
+ * changes. They are rasterized and blurred in software with
+ * {@link RunningSumBlur}, so a sprite costs the same whatever its blur.
+ * Lookups go through an open-addressing table on the primitive key, so a
+ * cached sprite is found without allocating.
+ */
+public class RadialSpriteCache {
+
+    static final int SPRITE_SIZE = 128;
+    static final int TINTS_PER_COLOR = 8;
+    // A step is below the smallest blur width at common sizes, so the highlight doesn't visibly jump
+    static final int OFFSET_STEPS = 16;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private Image[] sprites = new Image[INITIAL_CAPACITY];
+    private int size;
+    private final RunningSumBlur blurFilter = new RunningSumBlur();
+    private Color[] palette;
+    private double radius = 1;
+
+    public RadialSpriteCache(Color[] palette) {
+        this.palette = palette.clone();
+    }
+
+    public void setPalette(Color[] palette) {
+        this.palette = palette.clone();
+        clear();
+    }
+
+    public void setRadius(double radius) {
+        if (radius != this.radius) {
+            this.radius = radius;
+            clear();
+        }
+    }
+
+    public double getRadius() {
+        return radius;
+    }
+
+    // Scene size of a sprite, the disc plus room for the blur to spread
+    public double getExtent(double blur) {
+        return 2 * (radius + blur);
+    }
+
+    // The disc with its gradient center gradientOffset scene units to the right of the disc center
+    public Image getSprite(double blur, int quality, double colorProgress, double gradientOffset) {
+        int blurKey = (int) Math.round(blur);
+        int tintCount = palette.length * TINTS_PER_COLOR;
+        int tint = (int) Math.round(colorProgress * TINTS_PER_COLOR) % tintCount;
+        int offsetStep = (int) Math.min(OFFSET_STEPS, Math.round(gradientOffset / radius * OFFSET_STEPS));
+        long key = ((long) blurKey << 32) | ((long) quality << 24) | ((long) offsetStep << 16) | tint;
+
+        int slot = find(key);
+        Image sprite = sprites[slot];
+        if (sprite == null) {
+            sprite = renderSprite(blurKey, quality, tint, offsetStep);
+            keys[slot] = key;
+            sprites[slot] = sprite;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+        }
+        return sprite;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Slot holding key, or the empty slot it belongs in
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = Long.hashCode(key * 0x9E3779B97F4A7C15L) & mask;
+        while (sprites[slot] != null && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        Image[] oldSprites = sprites;
+        keys = new long[oldKeys.length * 2];
+        sprites = new Image[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldSprites[i] != null) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                sprites[slot] = oldSprites[i];
+            }
+        }
+    }
+
+    private void clear() {
+        Arrays.fill(sprites, null);
+        size = 0;
+    }
+
+    private Image renderSprite(int blur, int quality, int tint, int offsetStep) {
+        double scale = SPRITE_SIZE / getExtent(blur);
+        double r = radius * scale;
+        double center = SPRITE_SIZE / 2.0;
+        double gradientCenter = center + r * offsetStep / OFFSET_STEPS;
+        int color = AuroraMath.toArgb(tintColor(tint));
+        int inner = AuroraMath.derive(color, 1.2, 0.9);
+        int mid = AuroraMath.derive(color, 0.8, 0.4);
+        int outer = AuroraMath.derive(color, 0.5, 0.1);
+
+        int[] pixels = new int[SPRITE_SIZE * SPRITE_SIZE];
+        for (int y = 0; y < SPRITE_SIZE; y++) {
+            for (int x = 0; x < SPRITE_SIZE; x++) {
+                double dy = y + 0.5 - center;
+                if (Math.hypot(x + 0.5 - center, dy) > r) {
+                    continue;
+                }
+                // Past the gradient's radius the last stop carries on, like CycleMethod.NO_CYCLE
+                double t = Math.min(1, Math.hypot(x + 0.5 - gradientCenter, dy) / r);
+                int argb = t < LayerFrame.MID_STOP
+                        ? AuroraMath.interpolate(inner, mid, t / LayerFrame.MID_STOP)
+                        : AuroraMath.interpolate(mid, outer, (t - LayerFrame.MID_STOP) / (1 - LayerFrame.MID_STOP));
+                pixels[y * SPRITE_SIZE + x] = AuroraMath.premultiply(argb);
+            }
+        }
+
+        // Same kernel as BoxBlur(size, size, quality): a box of size pixels per pass
+        double boxSize = Math.min(255, blur * scale);
+        blurFilter.blur(pixels, SPRITE_SIZE, SPRITE_SIZE, (boxSize - 1) / 2, quality,
+                RunningSumBlur.Edges.TRANSPARENT);
+
+        WritableImage image = new WritableImage(SPRITE_SIZE, SPRITE_SIZE);
+        image.getPixelWriter().setPixels(0, 0, SPRITE_SIZE, SPRITE_SIZE,
+                PixelFormat.getIntArgbPreInstance(), pixels, 0, SPRITE_SIZE);
+        return image;
+    }
+
+    private Color tintColor(int tint) {
+        int index1 = tint / TINTS_PER_COLOR;
+        int index2 = (index1 + 1) % palette.length;
+        double blend = (tint % TINTS_PER_COLOR) / (double) TINTS_PER_COLOR;
+        return palette[index1].interpolate(palette[index2], AuroraMath.smoothStep(blend));
+    }
+}
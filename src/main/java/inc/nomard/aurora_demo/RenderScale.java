@@ -0,0 +1,33 @@
+package inc.nomard.aurora_demo;
+
+/**
+ * Fraction of the scene size the aurora is drawn at before it is
+ * bilinearly upscaled. The aurora has almost no high frequency detail,
+ * so fill and blur cost drop with the square of the factor at little
+ * visible loss.
+ */
+public enum RenderScale {
+    FULL(1),
+    HALF(0.5),
+    QUARTER(0.25),
+    EIGHTH(0.125);
+
+    private final double factor;
+
+    RenderScale(double factor) {
+        this.factor = factor;
+    }
+
+    public double getFactor() {
+        return factor;
+    }
+
+    int scaledSize(double size) {
+        return Math.max(1, (int) Math.ceil(size * factor));
+    }
+
+    // Pixels for size scene units at pixelsPerUnit pixels per unit before the factor
+    int scaledSize(double size, double pixelsPerUnit) {
+        return Math.max(1, (int) Math.ceil(size * factor * pixelsPerUnit));
+    }
+}
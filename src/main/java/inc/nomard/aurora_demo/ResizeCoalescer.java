@@ -0,0 +1,116 @@
+package inc.nomard.aurora_demo;
+
+import javafx.animation.AnimationTimer;
+import javafx.beans.InvalidationListener;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turns the stream of width and height changes of a window drag into at
+ * most one layout per pulse and one rebuild once the size has settled.
+ * Changes only mark the size dirty. The next pulse hands the current size
+ * to the stretch handler, which should show a cheap stand-in such as the
+ * last frame scaled to fit, and once no change came in for the settle
+ * delay the settle handler rebuilds sprites, buffers and caches at the
+ * final size. Its timer only runs while a resize is pending. Use from the
+ * FX thread.
+ */
+public class ResizeCoalescer {
+
+    public interface Handler {
+        void resize(double width, double height);
+    }
+
+    private static final double DEFAULT_SETTLE_MILLIS = 150;
+
+    private final ReadOnlyDoubleProperty width;
+    private final ReadOnlyDoubleProperty height;
+    private final Handler stretch;
+    private final Handler settle;
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            pulse(now);
+        }
+    };
+    // Invalidation only, the size is read once per pulse, which also lets the next change through
+    private final InvalidationListener invalidated = obs -> changed();
+    private long settleNanos = millisToNanos(DEFAULT_SETTLE_MILLIS);
+    private boolean dirty;
+    private boolean pending;
+    private long changedAt;
+    private long events;
+    private long stretches;
+    private long settles;
+
+    public ResizeCoalescer(ReadOnlyDoubleProperty width, ReadOnlyDoubleProperty height,
+                           Handler stretch, Handler settle) {
+        this.width = width;
+        this.height = height;
+        this.stretch = stretch;
+        this.settle = settle;
+        width.addListener(invalidated);
+        height.addListener(invalidated);
+    }
+
+    // Time without a change before the settle handler runs, 0 rebuilds on the pulse after the change
+    public void setSettleMillis(double settleMillis) {
+        this.settleNanos = millisToNanos(settleMillis);
+    }
+
+    private static long millisToNanos(double millis) {
+        return (long) (millis * TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    private void changed() {
+        events++;
+        dirty = true;
+        if (!pending) {
+            pending = true;
+            timer.start();
+        }
+    }
+
+    private void pulse(long now) {
+        if (dirty) {
+            dirty = false;
+            changedAt = now;
+            stretches++;
+            stretch.resize(width.get(), height.get());
+            if (settleNanos > 0) {
+                return;
+            }
+        }
+        if (now - changedAt >= settleNanos) {
+            timer.stop();
+            pending = false;
+            settles++;
+            settle.resize(width.get(), height.get());
+        }
+    }
+
+    public void dispose() {
+        timer.stop();
+        pending = false;
+        width.removeListener(invalidated);
+        height.removeListener(invalidated);
+    }
+
+    public long getEvents() {
+        return events;
+    }
+
+    public long getStretches() {
+        return stretches;
+    }
+
+    public long getSettles() {
+        return settles;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Resize: %d changes, %d layouts, %d rebuilds", events, stretches, settles);
+    }
+}
@@ -0,0 +1,19 @@
+package inc.nomard.aurora_demo;
+
+/**
+ * How many pixels per scene unit an aurora is drawn with before the
+ * {@link RenderScale} factor is applied. {@code DEVICE} follows the
+ * screen, 2 on a 200% display. {@code LOGICAL} stays at 1 whatever the
+ * screen and lets the image be scaled up on the way out. The aurora is
+ * blurry by design, so on a 2x screen that costs a quarter of the fill
+ * and blur for no visible loss.
+ */
+public enum ResolutionPolicy {
+    DEVICE,
+    LOGICAL;
+
+    // Pixels per scene unit on a screen of outputScale
+    public double pixelsPerUnit(double outputScale) {
+        return this == DEVICE ? outputScale : 1;
+    }
+}
@@ -0,0 +1,53 @@
+package inc.nomard.aurora_demo;
+
+import java.util.Optional;
+
+/**
+ * The per-pixel work of {@link PixelRasterizer} over one row: radial
+ * falloff, gradient stop interpolation and SCREEN blending of every layer
+ * over the background, then packing into ARGB.
+ *
+ * <p>{@link #select()} returns the Vector API kernels when they were built
+ * in (-PvectorKernels, from {@code src/vector/java}) and the
+ * {@code jdk.incubator.vector} module was added to the boot layer, the
+ * scalar kernels otherwise. The module isn't declared in module-info, so
+ * builds without them never touch the incubator. {@code -Daurora.kernels=fixed} selects the
+ * integer {@link FixedPointCompositor} instead, SCREEN blending all layers, and
+ * {@code -Daurora.kernels=fixed:soft_light,add} gives it the blend modes the layers cycle through.
+ */
+public interface RowKernels {
+
+    static RowKernels select() {
+        String requested = System.getProperty("aurora.kernels", "");
+        if (requested.equals("fixed") || requested.startsWith("fixed:")) {
+            return FixedPointCompositor.parse(requested.substring("fixed".length()));
+        }
+        Optional<Module> vector = ModuleLayer.boot().findModule("jdk.incubator.vector");
+        if (vector.isPresent() && !requested.equals("scalar") && !Boolean.getBoolean("aurora.scalar")) {
+            RowKernels kernels = loadVectorKernels(vector.get());
+            if (kernels != null) {
+                return kernels;
+            }
+        }
+        return new ScalarKernels();
+    }
+
+    // Null when this build was made without them
+    private static RowKernels loadVectorKernels(Module vector) {
+        // Not in module-info, so the read edge is added here, before the kernels link against it
+        RowKernels.class.getModule().addReads(vector);
+        try {
+            Class<?> type = Class.forName(RowKernels.class.getPackageName() + ".VectorKernels");
+            return (RowKernels) type.getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Vector kernels failed to load", e);
+        }
+    }
+
+    // Fills pixels[offset + i] for i in [from, to), pixel i is centered at x0 + i + 0.5
+    void renderRow(PixelRasterizer layers, int[] pixels, int offset, int from, int to, float x0, float py);
+
+    String name();
+}
@@ -0,0 +1,84 @@
+package inc.nomard.aurora_demo;
+
+/**
+ * Box blur over packed ARGB pixels whose cost per pixel does not depend on
+ * the radius: each line keeps a running sum of its window and only adds the
+ * pixel entering and subtracts the pixel leaving it. Several passes
+ * approximate a Gaussian, three are visually indistinguishable from one.
+ *
+ * <p>Works on premultiplied pixels. Each pass writes its lines transposed,
+ * so the vertical half of a pass reads rows as well. Not thread safe, the
+ * scratch buffer is reused between calls.
+ */
+public final class RunningSumBlur {
+
+    public enum Edges {
+        // Repeat the border pixels, for full frames
+        CLAMP,
+        // Treat everything outside as transparent, for sprites
+        TRANSPARENT
+    }
+
+    private int[] scratch = new int[0];
+
+    public void blur(int[] pixels, int width, int height, double radius, int passes, Edges edges) {
+        int r = (int) Math.round(radius);
+        if (r < 1 || passes < 1) {
+            return;
+        }
+        if (scratch.length < width * height) {
+            scratch = new int[width * height];
+        }
+
+        for (int pass = 0; pass < passes; pass++) {
+            blurLines(pixels, scratch, width, height, r, edges);
+            blurLines(scratch, pixels, height, width, r, edges);
+        }
+    }
+
+    // Blurs each of the height lines of length width and writes it transposed into dst
+    private static void blurLines(int[] src, int[] dst, int width, int height, int radius, Edges edges) {
+        boolean clamp = edges == Edges.CLAMP;
+        int window = 2 * radius + 1;
+        // 24-bit fixed-point 1 / window, rounded, so flat areas keep their value over many passes.
+        // Exact for windows up to 65k, 16 bits already lost a level from a window of 401
+        long mul = ((1L << 24) + window / 2) / window;
+
+        for (int y = 0; y < height; y++) {
+            int in = y * width;
+            int first = clamp ? src[in] : 0;
+            int last = clamp ? src[in + width - 1] : 0;
+
+            int sa = 0, sr = 0, sg = 0, sb = 0;
+            for (int i = -radius; i <= radius; i++) {
+                int p = i < 0 ? first : i >= width ? last : src[in + i];
+                sa += p >>> 24;
+                sr += (p >> 16) & 0xFF;
+                sg += (p >> 8) & 0xFF;
+                sb += p & 0xFF;
+            }
+
+            int out = y;
+            for (int x = 0; x < width; x++) {
+                dst[out] = (average(sa, mul) << 24)
+                        | (average(sr, mul) << 16)
+                        | (average(sg, mul) << 8)
+                        | average(sb, mul);
+                out += height;
+
+                int enter = x + radius + 1;
+                int leave = x - radius;
+                int pin = enter >= width ? last : src[in + enter];
+                int pout = leave < 0 ? first : src[in + leave];
+                sa += (pin >>> 24) - (pout >>> 24);
+                sr += ((pin >> 16) & 0xFF) - ((pout >> 16) & 0xFF);
+                sg += ((pin >> 8) & 0xFF) - ((pout >> 8) & 0xFF);
+                sb += (pin & 0xFF) - (pout & 0xFF);
+            }
+        }
+    }
+
+    private static int average(int sum, long mul) {
+        return (int) Math.min(0xFF, (sum * mul + (1L << 23)) >>> 24);
+    }
+}
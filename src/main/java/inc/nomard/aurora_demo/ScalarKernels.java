@@ -0,0 +1,67 @@
+package inc.nomard.aurora_demo;
+
+final class ScalarKernels implements RowKernels {
+
+    static final float MID_STOP = (float) LayerFrame.MID_STOP;
+    static final float INV_MID_STOP = 1 / MID_STOP;
+    static final float INV_OUTER_SPAN = 1 / (1 - MID_STOP);
+    static final float BACKGROUND_R = ((PixelRasterizer.BACKGROUND >> 16) & 0xFF) / 255f;
+    static final float BACKGROUND_G = ((PixelRasterizer.BACKGROUND >> 8) & 0xFF) / 255f;
+    static final float BACKGROUND_B = (PixelRasterizer.BACKGROUND & 0xFF) / 255f;
+
+    @Override
+    public void renderRow(PixelRasterizer layers, int[] pixels, int offset, int from, int to, float x0, float py) {
+        float[] stops = layers.stops;
+        int count = layers.layers;
+
+        for (int i = from; i < to; i++) {
+            float px = x0 + i + 0.5f;
+            float r = BACKGROUND_R, g = BACKGROUND_G, b = BACKGROUND_B;
+
+            for (int l = 0; l < count; l++) {
+                float ex = px - layers.centerX[l];
+                float ey = py - layers.centerY[l];
+                float edge = (layers.radius[l] - (float) Math.sqrt(ex * ex + ey * ey)) * layers.invBlur[l] + 0.5f;
+                if (edge <= 0) {
+                    continue;
+                }
+                if (edge > 1) {
+                    edge = 1;
+                }
+
+                float dx = px - layers.gradientX[l];
+                float dy = py - layers.gradientY[l];
+                float t = (float) Math.sqrt(dx * dx + dy * dy) * layers.invRadius[l];
+
+                int s = l * PixelRasterizer.STOP_STRIDE;
+                float f;
+                if (t < MID_STOP) {
+                    f = t * INV_MID_STOP;
+                } else {
+                    s += 4;
+                    f = Math.min(1, (t - MID_STOP) * INV_OUTER_SPAN);
+                }
+
+                float a = (stops[s + 3] + (stops[s + 7] - stops[s + 3]) * f) * edge * PixelRasterizer.BASE_OPACITY;
+                float sr = (stops[s] + (stops[s + 4] - stops[s]) * f) * a;
+                float sg = (stops[s + 1] + (stops[s + 5] - stops[s + 1]) * f) * a;
+                float sb = (stops[s + 2] + (stops[s + 6] - stops[s + 2]) * f) * a;
+
+                // SCREEN: 1 - (1 - dst) * (1 - src)
+                r += sr * (1 - r);
+                g += sg * (1 - g);
+                b += sb * (1 - b);
+            }
+
+            pixels[offset + i] = 0xFF000000
+                    | ((int) (r * 255 + 0.5f) << 16)
+                    | ((int) (g * 255 + 0.5f) << 8)
+                    | (int) (b * 255 + 0.5f);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
@@ -1,8 +1,6 @@
 package inc.nomard.aurora_demo;
 
-import javafx.animation.Animation;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.scene.Scene;
 import javafx.scene.effect.BoxBlur;
@@ -15,9 +13,6 @@ import javafx.scene.paint.LinearGradient;
 import javafx.scene.paint.Stop;
 import javafx.scene.shape.Circle;
 import javafx.stage.Stage;
-import javafx.util.Duration;
-
-import java.util.Random;
 
 public class SmoothAurora extends Application {
 
@@ -27,6 +22,8 @@ public class SmoothAurora extends Application {
     private static final int NUM_LAYERS = 4;
     private static final double MAX_BLUR = 100.0;
     private static final double MIN_BLUR = 80.0;
+    private static final double MAX_FPS = 60; // 0 follows the display's refresh rate
+    private static final int COLOR_STEPS = 32; // fill shades per palette color, in the shared gradient cache
 
     private static final Color[] COLOR_PALETTE = {
             Color.color(0.125490203499794, 0, 0.2235294133424759),
@@ -38,8 +35,11 @@ public class SmoothAurora extends Application {
     };
 
     private final AuroraLayer[] layers = new AuroraLayer[NUM_LAYERS];
-    private Timeline animationTimeline;
-    private double globalTime = 0;
+    private MotionOscillators motion;
+    private final GradientCache.Style<LinearGradient> fills =
+            GradientCache.shared().style("diagonal-linear", (shade, column) -> createGradient(shade));
+    private final FrameClock clock = DeterministicMode.newClock(MAX_FPS);
+    private AnimationTimer animationTimer;
 
     public static void main(String[] args) {
         launch(args);
@@ -54,6 +54,7 @@ public class SmoothAurora extends Application {
         Scene scene = new Scene(root, INIT_WIDTH, INIT_HEIGHT);
         stage.setScene(scene);
         stage.show();
+        new VisibilityThrottle(stage, root, animationTimer, clock);
     }
 
     private Pane createRootPane() {
@@ -64,98 +65,76 @@ public class SmoothAurora extends Application {
     }
 
     private void initializeLayers(Pane parent) {
-        Random rand = new Random();
+        // The shared layer motion, stepped as wrapped phases
+        LayerStore store = new LayerStore(NUM_LAYERS, DeterministicMode.newRandom(), COLOR_PALETTE.length,
+                MIN_BLUR, MAX_BLUR);
+        motion = new MotionOscillators(store, COLOR_PALETTE.length);
         for (int i = 0; i < NUM_LAYERS; i++) {
-            layers[i] = new AuroraLayer(parent, i, rand);
+            layers[i] = new AuroraLayer(parent, i);
         }
     }
 
     private void setupAnimation() {
-        animationTimeline = new Timeline(
-                new KeyFrame(Duration.millis(16), e -> {
-                    globalTime += 0.016;
+        animationTimer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if (clock.tick(now)) {
                     updateLayers();
-                })
-        );
-        animationTimeline.setCycleCount(Animation.INDEFINITE);
-        animationTimeline.play();
+                }
+            }
+        };
+        animationTimer.start();
     }
 
     private void updateLayers() {
+        motion.advance(clock.getStep());
         for (AuroraLayer layer : layers) {
-            layer.update(globalTime);
+            layer.update();
         }
     }
 
     @Override
     public void stop() {
-        if (animationTimeline != null) {
-            animationTimeline.stop();
+        if (animationTimer != null) {
+            animationTimer.stop();
         }
     }
 
+    private static LinearGradient createGradient(int shade) {
+        Color color = GradientCache.paletteColor(COLOR_PALETTE, shade, COLOR_STEPS, false);
+        return new LinearGradient(
+                0, 0, 1, 1, true, CycleMethod.NO_CYCLE,
+                new Stop(0, color.deriveColor(0, 1, 1, 0.9)),
+                new Stop(1, color.deriveColor(30, 1, 0.9, 0.6))
+        );
+    }
+
     private class AuroraLayer {
         private final Circle rectangle;
         private final int layerIndex;
-        private final Random rand;
-        private final double[] motionParams = new double[4];
 
-        AuroraLayer(Pane parent, int index, Random random) {
+        AuroraLayer(Pane parent, int index) {
             this.layerIndex = index;
-            this.rand = random;
             this.rectangle = createCircle();
             parent.getChildren().add(rectangle);
-            initializeMotionParams();
         }
 
         private Circle createCircle() {
             Circle rect = new Circle(INIT_RADIUS);
             rect.setOpacity(0.8);
+            double blur = calculateBlur();
+            rect.setEffect(new BoxBlur(blur, blur, 10));
             return rect;
         }
 
-        private void initializeMotionParams() {
-            for (int i = 0; i < motionParams.length; i++) {
-                motionParams[i] = rand.nextDouble() * 2 * Math.PI;
-            }
-        }
-
-        void update(double time) {
-            // Smooth color transition through palette
-            double colorProgress = (time * 0.1) % COLOR_PALETTE.length;
-            int colorIndex = (int) colorProgress;
-            double blend = colorProgress - colorIndex;
-            Color color = interpolateColors(
-                    COLOR_PALETTE[colorIndex % COLOR_PALETTE.length],
-                    COLOR_PALETTE[(colorIndex + 1) % COLOR_PALETTE.length],
-                    blend
-            );
+        void update() {
+            // Smooth color transition through palette, in quantized shades
+            LinearGradient fill = fills.get(GradientCache.shade(motion.colorProgress(layerIndex), COLOR_STEPS), 0);
 
             // Organic motion using combined sine waves
-            double xOffset = calculateOffset(time, 0) * INIT_WIDTH / 3;
-            double yOffset = calculateOffset(time, 1) * INIT_HEIGHT / 3;
-            double rotation = calculateRotation(time);
-            double scale = calculateScale(time);
-            double blur = calculateBlur();
-
-            updateCircle(xOffset, yOffset, rotation, scale, blur, color);
-        }
-
-        private Color interpolateColors(Color c1, Color c2, double t) {
-            return c1.interpolate(c2, t);
-        }
-
-        private double calculateOffset(double time, int paramIndex) {
-            return Math.sin(time * 0.5 + motionParams[paramIndex]) * 0.8
-                    + Math.cos(time * 0.3 + motionParams[paramIndex + 1]) * 0.4;
-        }
-
-        private double calculateRotation(double time) {
-            return Math.sin(time * 0.2 + motionParams[2]) * 15;
-        }
-
-        private double calculateScale(double time) {
-            return 0.8 + Math.sin(time * 0.4 + motionParams[3]) * 0.2;
+            double xOffset = motion.xOffset(layerIndex);
+            double yOffset = motion.yOffset(layerIndex);
+            updateCircle(xOffset, yOffset, motion.rotation(), motion.scale(), fill);
         }
 
         private double calculateBlur() {
@@ -163,20 +142,13 @@ public class SmoothAurora extends Application {
         }
 
         private void updateCircle(double x, double y, double rot,
-                                     double scale, double blur, Color color) {
-            LinearGradient gradient = new LinearGradient(
-                    0, 0, 1, 1, true, CycleMethod.NO_CYCLE,
-                    new Stop(0, color.deriveColor(0, 1, 1, 0.9)),
-                    new Stop(1, color.deriveColor(30, 1, 0.9, 0.6))
-            );
-
-            rectangle.setFill(gradient);
+                                     double scale, LinearGradient fill) {
+            rectangle.setFill(fill);
             rectangle.setTranslateX(x);
             rectangle.setTranslateY(y);
             rectangle.setRotate(rot);
             rectangle.setScaleX(scale);
             rectangle.setScaleY(scale);
-            rectangle.setEffect(new BoxBlur(blur, blur, 10));
         }
     }
 }
\ No newline at end of file
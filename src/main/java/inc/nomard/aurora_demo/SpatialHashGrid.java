@@ -0,0 +1,121 @@
+package inc.nomard.aurora_demo;
+
+import java.util.Arrays;
+
+/**
+ * A uniform grid over the scene that buckets points by cell, rebuilt every
+ * frame with a counting sort. With the cell size at the interaction
+ * radius, a point's neighbours are all in its own and the eight
+ * surrounding cells, so a pass over every pair within range costs
+ * proportional to the local density instead of N². The items of cell c
+ * are {@code items[cellStart[c]]} to {@code items[cellStart[c + 1] - 1]}.
+ * Building reuses the arrays once they are large enough.
+ */
+public final class SpatialHashGrid {
+
+    public interface PairVisitor {
+        // i < j, and dx, dy run from point i to point j
+        void visit(int i, int j, double dx, double dy, double d2);
+    }
+
+    private final double cellSize;
+    private final double invCellSize;
+    private int columns;
+    private int rows;
+    int[] cellStart = new int[1];
+    int[] items = new int[0];
+    private int[] cellOf = new int[0];
+
+    public SpatialHashGrid(double cellSize) {
+        this.cellSize = cellSize;
+        this.invCellSize = 1 / cellSize;
+    }
+
+    // Buckets the first count points of an area of width x height, points outside go to the border cells
+    public void build(double[] x, double[] y, int count, double width, double height) {
+        columns = Math.max(1, (int) Math.ceil(width * invCellSize));
+        rows = Math.max(1, (int) Math.ceil(height * invCellSize));
+        int cells = columns * rows;
+        if (cellStart.length < cells + 1) {
+            cellStart = new int[cells + 1];
+        }
+        if (items.length < count) {
+            items = new int[count];
+            cellOf = new int[count];
+        }
+
+        // Count per cell, prefix sum into start offsets, then scatter
+        Arrays.fill(cellStart, 0, cells + 1, 0);
+        for (int i = 0; i < count; i++) {
+            int cell = cellY(y[i]) * columns + cellX(x[i]);
+            cellOf[i] = cell;
+            cellStart[cell + 1]++;
+        }
+        for (int c = 0; c < cells; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        for (int i = 0; i < count; i++) {
+            items[cellStart[cellOf[i]]++] = i;
+        }
+        // The scatter moved every start to the next cell's, shift them back
+        for (int c = cells; c > 0; c--) {
+            cellStart[c] = cellStart[c - 1];
+        }
+        cellStart[0] = 0;
+    }
+
+    // Visits every pair of the built points closer than range, each once, from a point's cell and its
+    // eight neighbours. The range must not exceed the cell size. Returns the number of pairs looked at
+    public long forEachPair(double[] x, double[] y, double range, PairVisitor visitor) {
+        double range2 = range * range;
+        long checks = 0;
+        for (int cy = 0; cy < rows; cy++) {
+            for (int cx = 0; cx < columns; cx++) {
+                int cell = cy * columns + cx;
+                for (int a = cellStart[cell]; a < cellStart[cell + 1]; a++) {
+                    int i = items[a];
+                    double xi = x[i], yi = y[i];
+                    for (int ny = Math.max(0, cy - 1); ny <= Math.min(rows - 1, cy + 1); ny++) {
+                        for (int nx = Math.max(0, cx - 1); nx <= Math.min(columns - 1, cx + 1); nx++) {
+                            int neighbour = ny * columns + nx;
+                            for (int b = cellStart[neighbour]; b < cellStart[neighbour + 1]; b++) {
+                                int j = items[b];
+                                if (j <= i) {
+                                    continue;
+                                }
+                                checks++;
+                                double dx = x[j] - xi;
+                                double dy = y[j] - yi;
+                                double d2 = dx * dx + dy * dy;
+                                if (d2 < range2) {
+                                    visitor.visit(i, j, dx, dy, d2);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return checks;
+    }
+
+    public int cellX(double x) {
+        return Math.max(0, Math.min(columns - 1, (int) (x * invCellSize)));
+    }
+
+    public int cellY(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) (y * invCellSize)));
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public double getCellSize() {
+        return cellSize;
+    }
+}
@@ -0,0 +1,99 @@
+package inc.nomard.aurora_demo;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link PixelRasterizer} that splits the frame into square tiles and
+ * fills them on its own {@link ForkJoinPool}. Tiles share nothing but the
+ * read-only per-layer constants, so throughput scales with the cores given.
+ * One worker task per thread claims tiles from a shared counter, the tasks
+ * are reused every frame, so rendering allocates nothing.
+ */
+public class TiledRasterizer extends PixelRasterizer implements AutoCloseable {
+
+    public static final int DEFAULT_TILE_SIZE = 64;
+
+    private final ForkJoinPool pool;
+    private final int tileSize;
+    private final TileWorker[] workers;
+    private final FrameTask frameTask = new FrameTask();
+    private final AtomicInteger nextTile = new AtomicInteger();
+    // The frame being rendered, written before the pool is invoked
+    private int[] pixels;
+    private int width;
+    private int height;
+    private int columns;
+    private int tileCount;
+
+    public TiledRasterizer() {
+        this(DEFAULT_TILE_SIZE, Runtime.getRuntime().availableProcessors());
+    }
+
+    public TiledRasterizer(int tileSize, int parallelism) {
+        this(tileSize, parallelism, RowKernels.select());
+    }
+
+    public TiledRasterizer(int tileSize, int parallelism, RowKernels kernels) {
+        super(kernels);
+        if (tileSize < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("Tile size and parallelism must be positive");
+        }
+        this.tileSize = tileSize;
+        this.pool = new ForkJoinPool(parallelism);
+        this.workers = new TileWorker[parallelism];
+        for (int i = 0; i < parallelism; i++) {
+            workers[i] = new TileWorker();
+        }
+    }
+
+    @Override
+    public void render(LayerFrame frame, int[] pixels, int width, int height, double pixelScale) {
+        prepare(frame, pixelScale);
+        this.pixels = pixels;
+        this.width = width;
+        this.height = height;
+        this.columns = (width + tileSize - 1) / tileSize;
+        this.tileCount = columns * ((height + tileSize - 1) / tileSize);
+        nextTile.set(0);
+        frameTask.reinitialize();
+        for (TileWorker worker : workers) {
+            worker.reinitialize();
+        }
+        pool.invoke(frameTask);
+        this.pixels = null;
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    private final class FrameTask extends RecursiveAction {
+        @Override
+        protected void compute() {
+            invokeAll(workers);
+        }
+    }
+
+    private final class TileWorker extends RecursiveAction {
+        @Override
+        protected void compute() {
+            for (int tile = nextTile.getAndIncrement(); tile < tileCount; tile = nextTile.getAndIncrement()) {
+                int x0 = (tile % columns) * tileSize;
+                int y0 = (tile / columns) * tileSize;
+                renderRegion(pixels, width, x0, y0,
+                        Math.min(x0 + tileSize, width), Math.min(y0 + tileSize, height));
+            }
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package inc.nomard.aurora_demo;
+
+import javafx.animation.AnimationTimer;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelBuffer;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Like {@link AuroraSurface}, but frames are simulated and rasterized on a
+ * dedicated producer thread. Each size owns three off-heap
+ * {@link PixelBuffer}s in rotation: the one on screen, the latest completed
+ * one and the one being written. The producer and the FX pulse trade
+ * buffers through a single atomic index swap, so neither ever waits on the
+ * other and the producer never writes into the buffer on screen.
+ *
+ * <p>Prism uploads a buffer on the render thread after the pulse that
+ * updated it, and that render can overlap the next pulse. So a fourth
+ * buffer, the one just taken off screen, is held back for one more swap
+ * before the producer may have it again, by when its upload is done.
+ *
+ * <p>The simulation and rasterizer belong to the producer thread once
+ * {@link #start()} was called. The pixel size follows the output scale of
+ * the view's window through the {@link ResolutionPolicy}, a monitor change
+ * hands the producer a new set of buffers like a resize does.
+ */
+public class TripleBufferedSurface implements AutoCloseable {
+
+    // Exchange word: index of the latest completed slot, plus a bit set while the FX pulse hasn't taken it
+    private static final int FRESH = 4;
+    private static final int INDEX_MASK = 3;
+
+    private final AuroraSimulation simulation;
+    private final PixelRasterizer rasterizer;
+    private final RenderScale renderScale;
+    private final long frameNanos;
+    private final ImageView view = new ImageView();
+    private final ObservableValue<Number> windowScale = OutputScale.of(view);
+    private ResolutionPolicy resolutionPolicy = ResolutionPolicy.LOGICAL;
+    private double outputScale = 1;
+    private double width, height;
+    private final AtomicReference<SlotSet> slots = new AtomicReference<>();
+    private final AtomicLong producedFrames = new AtomicLong();
+    private long publishedFrames;
+    private final AnimationTimer publisher;
+    private Thread producer;
+    private volatile boolean running;
+
+    public TripleBufferedSurface(AuroraSimulation simulation, PixelRasterizer rasterizer,
+                                 RenderScale renderScale, double fps) {
+        this.simulation = simulation;
+        this.rasterizer = rasterizer;
+        this.renderScale = renderScale;
+        this.frameNanos = (long) (TimeUnit.SECONDS.toNanos(1) / fps);
+
+        view.setMouseTransparent(true);
+        view.setPreserveRatio(false);
+        view.setSmooth(true);
+        windowScale.addListener((obs, ov, nv) -> {
+            outputScale = nv.doubleValue();
+            resize(width, height);
+        });
+
+        publisher = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                publish();
+            }
+        };
+    }
+
+    public ImageView getView() {
+        return view;
+    }
+
+    // FX thread
+    public void setResolutionPolicy(ResolutionPolicy resolutionPolicy) {
+        this.resolutionPolicy = resolutionPolicy;
+        resize(width, height);
+    }
+
+    // FX thread. Shows the current frames scaled to width x height without new buffers, until resize()
+    public void stretch(double width, double height) {
+        view.setFitWidth(width);
+        view.setFitHeight(height);
+    }
+
+    // FX thread. A new size gets new buffers, the old image stays on screen until the first frame at the new size
+    public void resize(double width, double height) {
+        this.width = width;
+        this.height = height;
+        view.setFitWidth(width);
+        view.setFitHeight(height);
+
+        double pixelsPerUnit = resolutionPolicy.pixelsPerUnit(outputScale);
+        double pixelScale = renderScale.getFactor() * pixelsPerUnit;
+        int w = renderScale.scaledSize(width, pixelsPerUnit);
+        int h = renderScale.scaledSize(height, pixelsPerUnit);
+        SlotSet current = slots.get();
+        if (current != null && current.pixelWidth == w && current.pixelHeight == h
+                && current.pixelScale == pixelScale) {
+            current.sceneWidth = width;
+            current.sceneHeight = height;
+            return;
+        }
+        slots.set(new SlotSet(w, h, pixelScale, width, height));
+    }
+
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        producer = Thread.ofPlatform().name("aurora-producer").daemon().start(this::produce);
+        publisher.start();
+    }
+
+    public long getProducedFrames() {
+        return producedFrames.get();
+    }
+
+    public long getPublishedFrames() {
+        return publishedFrames;
+    }
+
+    private void produce() {
+        FrameClock clock = DeterministicMode.newClock(0);
+        long next = System.nanoTime();
+        SlotSet set = null;
+        int back = 0;
+        int[] pixels = new int[0];
+
+        while (running) {
+            SlotSet current = slots.get();
+            if (current == null) {
+                LockSupport.parkNanos(frameNanos);
+                continue;
+            }
+            if (current != set) {
+                set = current;
+                back = set.producerSlot;
+                pixels = new int[set.pixelWidth * set.pixelHeight];
+            }
+
+            clock.tick(System.nanoTime());
+            LayerFrame frame = simulation.advance(clock.getStep(), set.sceneWidth, set.sceneHeight);
+            rasterizer.render(frame, pixels, set.pixelWidth, set.pixelHeight, set.pixelScale);
+            set.slots[back].buffer.put(0, pixels);
+
+            // Hand the written slot over and take back whichever one the FX pulse left behind
+            back = set.exchange.getAndSet(back | FRESH) & INDEX_MASK;
+            producedFrames.incrementAndGet();
+
+            next += frameNanos;
+            long delay = next - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            } else {
+                // Fell behind, don't try to catch up with a burst of frames
+                next = System.nanoTime();
+            }
+        }
+    }
+
+    // FX pulse: swap the on-screen slot for the latest completed one, if there is one
+    private void publish() {
+        SlotSet set = slots.get();
+        if (set == null || (set.exchange.get() & FRESH) == 0) {
+            return;
+        }
+        // The previous front may still be uploading, the one retired by the last swap no longer is
+        int retired = set.front;
+        set.front = set.exchange.getAndSet(set.retiring) & INDEX_MASK;
+        set.retiring = retired;
+
+        Slot slot = set.slots[set.front];
+        slot.pixelBuffer.updateBuffer(b -> null);
+        if (view.getImage() != slot.image) {
+            view.setImage(slot.image);
+        }
+        publishedFrames++;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        publisher.stop();
+        if (producer != null) {
+            producer.interrupt();
+        }
+    }
+
+    private static final class Slot {
+        final IntBuffer buffer;
+        final PixelBuffer<IntBuffer> pixelBuffer;
+        final WritableImage image;
+
+        Slot(int width, int height) {
+            buffer = ByteBuffer.allocateDirect(width * height * Integer.BYTES)
+                    .order(ByteOrder.nativeOrder())
+                    .asIntBuffer();
+            pixelBuffer = new PixelBuffer<>(width, height, buffer, PixelFormat.getIntArgbPreInstance());
+            image = new WritableImage(pixelBuffer);
+        }
+    }
+
+    // The slots for one size. Slot 0 starts on screen, 1 as the exchanged one, 2 with the producer, 3 retiring
+    private static final class SlotSet {
+        final int pixelWidth;
+        final int pixelHeight;
+        final double pixelScale;
+        final Slot[] slots = new Slot[4];
+        final AtomicInteger exchange = new AtomicInteger(1);
+        final int producerSlot = 2;
+        volatile double sceneWidth;
+        volatile double sceneHeight;
+        // Only touched by the FX thread
+        int front = 0;
+        int retiring = 3;
+
+        SlotSet(int pixelWidth, int pixelHeight, double pixelScale, double sceneWidth, double sceneHeight) {
+            this.pixelWidth = pixelWidth;
+            this.pixelHeight = pixelHeight;
+            this.pixelScale = pixelScale;
+            this.sceneWidth = sceneWidth;
+            this.sceneHeight = sceneHeight;
+            for (int i = 0; i < slots.length; i++) {
+                slots[i] = new Slot(pixelWidth, pixelHeight);
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package inc.nomard.aurora_demo;
+
+import javafx.animation.AnimationTimer;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.value.ChangeListener;
+import javafx.scene.Node;
+import javafx.stage.Stage;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Pauses or slows an aurora's animation while nobody can see it. The timer
+ * stops while the stage is iconified or hidden or the aurora's node is
+ * invisible or out of the scene, and the {@link FrameClock} is throttled
+ * while the stage has no focus, which also covers most fullscreen apps
+ * placed on top of it. The clock is reset before the timer resumes, so the
+ * animation continues from the time it stopped at instead of jumping.
+ */
+public class VisibilityThrottle {
+
+    public enum State {
+        // Visible and focused, full rate
+        ACTIVE,
+        // Visible but in the background, throttled
+        UNFOCUSED,
+        // Nothing to see, timer stopped
+        HIDDEN
+    }
+
+    private static final double DEFAULT_BACKGROUND_FPS = 10;
+
+    private final Stage stage;
+    private final Node node;
+    private final AnimationTimer timer;
+    private final FrameClock clock;
+    private final ReadOnlyObjectWrapper<State> state = new ReadOnlyObjectWrapper<>(this, "state");
+    private final Map<State, Integer> entries = new EnumMap<>(State.class);
+    private final ChangeListener<Object> listener = (obs, ov, nv) -> update();
+    private double backgroundFps = DEFAULT_BACKGROUND_FPS;
+    private int transitions;
+
+    // Starts or stops timer right away to match the current state
+    public VisibilityThrottle(Stage stage, Node node, AnimationTimer timer, FrameClock clock) {
+        this.stage = stage;
+        this.node = node;
+        this.timer = timer;
+        this.clock = clock;
+
+        stage.iconifiedProperty().addListener(listener);
+        stage.showingProperty().addListener(listener);
+        stage.focusedProperty().addListener(listener);
+        node.visibleProperty().addListener(listener);
+        node.sceneProperty().addListener(listener);
+        update();
+    }
+
+    // Rate while the stage has no focus, 0 pauses like a hidden stage
+    public void setBackgroundFps(double backgroundFps) {
+        this.backgroundFps = backgroundFps;
+        update();
+    }
+
+    public double getBackgroundFps() {
+        return backgroundFps;
+    }
+
+    private void update() {
+        State next;
+        if (stage.isIconified() || !stage.isShowing() || !node.isVisible() || node.getScene() == null) {
+            next = State.HIDDEN;
+        } else if (!stage.isFocused()) {
+            next = backgroundFps > 0 ? State.UNFOCUSED : State.HIDDEN;
+        } else {
+            next = State.ACTIVE;
+        }
+
+        State previous = state.get();
+        if (next == previous) {
+            if (next == State.UNFOCUSED) {
+                clock.setThrottleFps(backgroundFps);
+            }
+            return;
+        }
+
+        if (next == State.HIDDEN) {
+            timer.stop();
+        } else {
+            clock.setThrottleFps(next == State.UNFOCUSED ? backgroundFps : 0);
+            if (previous == State.HIDDEN || previous == null) {
+                clock.reset();
+                timer.start();
+            }
+        }
+
+        if (previous != null) {
+            transitions++;
+        }
+        entries.merge(next, 1, Integer::sum);
+        state.set(next);
+    }
+
+    public void dispose() {
+        stage.iconifiedProperty().removeListener(listener);
+        stage.showingProperty().removeListener(listener);
+        stage.focusedProperty().removeListener(listener);
+        node.visibleProperty().removeListener(listener);
+        node.sceneProperty().removeListener(listener);
+    }
+
+    public ReadOnlyObjectProperty<State> stateProperty() {
+        return state.getReadOnlyProperty();
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    // State changes since construction
+    public int getTransitions() {
+        return transitions;
+    }
+
+    // How often the given state was entered, including the initial one
+    public int getEntries(State state) {
+        return entries.getOrDefault(state, 0);
+    }
+}
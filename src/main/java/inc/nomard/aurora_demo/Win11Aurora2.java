@@ -1,8 +1,6 @@
 package inc.nomard.aurora_demo;
 
-import javafx.animation.Animation;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.scene.Scene;
 import javafx.scene.effect.BoxBlur;
@@ -16,7 +14,6 @@ import javafx.scene.paint.Stop;
 import javafx.scene.shape.Circle;
 import javafx.scene.shape.Rectangle;
 import javafx.stage.Stage;
-import javafx.util.Duration;
 
 import java.util.Random;
 
@@ -26,9 +23,13 @@ public class Win11Aurora2 extends Application {
     private static final int HEIGHT = 600;
     private static final int NUM_LAYERS = 3;
     private static final double TRANSITION_TIME = 5; // seconds
+    private static final double MAX_FPS = 60; // 0 follows the display's refresh rate
 
-    private final Random random = new Random();
+    private final Random random = DeterministicMode.newRandom();
     private final AuroraLayer[] auroraLayers = new AuroraLayer[NUM_LAYERS];
+    private final FrameClock clock = DeterministicMode.newClock(MAX_FPS);
+    private AnimationTimer animationTimer;
+    private double nextRandomize = TRANSITION_TIME;
 
     // Base colors matching Windows 11 aesthetic
     private final Color[] palette = {
@@ -53,6 +54,7 @@ public class Win11Aurora2 extends Application {
 
         primaryStage.setScene(new Scene(root, WIDTH, HEIGHT));
         primaryStage.show();
+        new VisibilityThrottle(primaryStage, root, animationTimer, clock);
     }
 
     private void initializeLayers(Pane root) {
@@ -64,20 +66,22 @@ public class Win11Aurora2 extends Application {
     }
 
     private void setupAnimation() {
-        // Main animation timeline (60 FPS)
-        Timeline animation = new Timeline(
-                new KeyFrame(Duration.millis(16.666), e -> updateLayers())
-        );
-        animation.setCycleCount(Animation.INDEFINITE);
-
-        // Parameter randomization timeline
-        Timeline randomizer = new Timeline(
-                new KeyFrame(Duration.seconds(TRANSITION_TIME), e -> randomizeAllLayers())
-        );
-        randomizer.setCycleCount(Animation.INDEFINITE);
-
-        animation.play();
-        randomizer.play();
+        // Main animation, driven by pulse timestamps
+        animationTimer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if (clock.tick(now)) {
+                    updateLayers();
+                    // Randomize on animation time, so seeded runs repeat and a paused stage doesn't reshuffle
+                    if (clock.getTime() >= nextRandomize) {
+                        nextRandomize += TRANSITION_TIME;
+                        randomizeAllLayers();
+                    }
+                }
+            }
+        };
+
+        animationTimer.start();
     }
 
     private void updateLayers() {
@@ -88,7 +92,7 @@ public class Win11Aurora2 extends Application {
     }
 
     private void updateLayerMotion(AuroraLayer layer) {
-        layer.time += 0.016; // ~60 FPS
+        layer.time += clock.getStep();
         double progress = layer.time / TRANSITION_TIME;
 
         // Smooth parameter interpolation
@@ -114,14 +118,7 @@ public class Win11Aurora2 extends Application {
     }
 
     private void updateLayerAppearance(AuroraLayer layer) {
-        // Animated gradient with color transitions
-        LinearGradient gradient = new LinearGradient(
-                0, 0, 1, 1, true, CycleMethod.NO_CYCLE,
-                new Stop(0, layer.currentColor),
-                new Stop(1, layer.nextColor)
-        );
-
-        layer.rectangle.setFill(gradient);
+        // The gradient only changes when the layer is randomized
         layer.rectangle.setOpacity(
                 0.4 + 0.2 * Math.sin(layer.time * Math.PI)
         );
@@ -154,12 +151,10 @@ public class Win11Aurora2 extends Application {
         layer.nextColor = palette[random.nextInt(palette.length)]
                 .deriveColor(random.nextDouble() * 30, 1, 1, 0.6);
 
-        // Random blur effect
-        layer.rectangle.setEffect(new BoxBlur(
-                random.nextInt(50) + 80,
-                random.nextInt(50) + 80,
-                random.nextInt(3) + 2
-        ));
+        // Random blur effect, on the layer's one BoxBlur
+        layer.blur.setWidth(random.nextInt(50) + 80);
+        layer.blur.setHeight(random.nextInt(50) + 80);
+        layer.blur.setIterations(random.nextInt(3) + 2);
 
         if (initial) {
             layer.currentXParams = layer.nextXParams;
@@ -167,6 +162,13 @@ public class Win11Aurora2 extends Application {
             layer.currentColor = layer.nextColor;
             layer.time = 0;
         }
+
+        // Gradient from the previous color to the next
+        layer.rectangle.setFill(new LinearGradient(
+                0, 0, 1, 1, true, CycleMethod.NO_CYCLE,
+                new Stop(0, layer.currentColor),
+                new Stop(1, layer.nextColor)
+        ));
     }
 
     private double interpolate(double start, double end, double progress) {
@@ -178,6 +180,7 @@ public class Win11Aurora2 extends Application {
 
     private static class AuroraLayer {
         Circle rectangle = new Circle(200);
+        BoxBlur blur = new BoxBlur();
         double time = 0;
         double currentXParams, nextXParams;
         double currentYParams, nextYParams;
@@ -187,6 +190,7 @@ public class Win11Aurora2 extends Application {
 
         AuroraLayer() {
             rectangle.setOpacity(0.6);
+            rectangle.setEffect(blur);
         }
     }
 }
\ No newline at end of file
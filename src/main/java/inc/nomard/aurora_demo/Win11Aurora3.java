@@ -1,8 +1,6 @@
 package inc.nomard.aurora_demo;
 
-import javafx.animation.Animation;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.scene.Scene;
 import javafx.scene.effect.BoxBlur;
@@ -16,12 +14,8 @@ import javafx.scene.paint.Stop;
 import javafx.scene.shape.Circle;
 import javafx.scene.shape.Rectangle;
 import javafx.stage.Stage;
-import javafx.util.Duration;
 
-import java.util.Collections;
-import java.util.Map;
 import java.util.Random;
-import java.util.WeakHashMap;
 
 public class Win11Aurora3 extends Application {
 
@@ -32,6 +26,9 @@ public class Win11Aurora3 extends Application {
     private static final double TRANSITION_TIME = 5.0;
     private static final double MAX_BLUR = 100.0;
     private static final double MIN_BLUR = 90.0;
+    private static final double MAX_FPS = 60; // 0 follows the display's refresh rate
+    // Fill colors are cached at this many levels per channel, opacity at 16
+    private static final int COLOR_LEVELS = 64;
 
     private static final Color[] COLOR_PALETTE = {
             Color.color(0.125490203499794, 0, 0.2235294133424759),
@@ -42,13 +39,45 @@ public class Win11Aurora3 extends Application {
             Color.rgb(204, 25, 168)
     };
 
+    private static final GradientCache.Style<LinearGradient> FILLS =
+            GradientCache.shared().style("win11-linear", (shade, column) -> createGradient(shade));
+
     private final AuroraLayer[] layers = new AuroraLayer[NUM_LAYERS];
-    private final Random random = new Random();
-    private Timeline animationTimeline;
+    private final Random random = DeterministicMode.newRandom();
+    private final FrameClock clock = DeterministicMode.newClock(MAX_FPS);
+    private AnimationTimer animationTimer;
+    private double nextRandomize = TRANSITION_TIME;
+
+    // The blend of start and end, quantized into a gradient cache shade, without building the color
+    private static int safeColorShade(Color start, Color end, double t) {
+        if (start == null || end == null) return safeColorShade(COLOR_PALETTE[0], COLOR_PALETTE[0], 0);
+        int red = quantize(lerp(start.getRed(), end.getRed(), t), COLOR_LEVELS);
+        int green = quantize(lerp(start.getGreen(), end.getGreen(), t), COLOR_LEVELS);
+        int blue = quantize(lerp(start.getBlue(), end.getBlue(), t), COLOR_LEVELS);
+        int opacity = quantize(lerp(start.getOpacity(), end.getOpacity(), t), 16);
+        return ((opacity * COLOR_LEVELS + red) * COLOR_LEVELS + green) * COLOR_LEVELS + blue;
+    }
 
-    private static Color safeInterpolateColor(Color start, Color end, double t) {
-        if (start == null || end == null) return COLOR_PALETTE[0];
-        return start.interpolate(end, t);
+    private static int quantize(double value, int levels) {
+        return (int) Math.round(Math.max(0, Math.min(1, value)) * (levels - 1));
+    }
+
+    private static LinearGradient createGradient(int shade) {
+        double max = COLOR_LEVELS - 1;
+        Color color = Color.color(
+                shade / COLOR_LEVELS / COLOR_LEVELS % COLOR_LEVELS / max,
+                shade / COLOR_LEVELS % COLOR_LEVELS / max,
+                shade % COLOR_LEVELS / max,
+                shade / (COLOR_LEVELS * COLOR_LEVELS * COLOR_LEVELS) / 15.0
+        );
+        return new LinearGradient(
+                0, 0,
+                1, 1,
+                true,
+                CycleMethod.NO_CYCLE,
+                new Stop(0, color.deriveColor(0, 1, 1, 0.9)), // More opaque
+                new Stop(1, color.deriveColor(30, 1, 0.9, 0.6)) // More visible
+        );
     }
 
     private static double lerp(double start, double end, double t) {
@@ -68,6 +97,7 @@ public class Win11Aurora3 extends Application {
         Scene scene = new Scene(root, INIT_WIDTH, INIT_HEIGHT);
         stage.setScene(scene);
         stage.show();
+        new VisibilityThrottle(stage, root, animationTimer, clock);
         setupWindowListeners(scene);
     }
 
@@ -87,18 +117,21 @@ public class Win11Aurora3 extends Application {
     }
 
     private void setupAnimation() {
-        animationTimeline = new Timeline(
-                new KeyFrame(Duration.millis(16), e -> updateLayers())
-        );
-        animationTimeline.setCycleCount(Animation.INDEFINITE);
-
-        Timeline randomizer = new Timeline(
-                new KeyFrame(Duration.seconds(TRANSITION_TIME), e -> safeRandomizeAllLayers())
-        );
-        randomizer.setCycleCount(Animation.INDEFINITE);
+        animationTimer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if (clock.tick(now)) {
+                    updateLayers();
+                    // Animation time rather than a Timeline, a seeded run reshuffles on the same frames
+                    if (clock.getTime() >= nextRandomize) {
+                        nextRandomize += TRANSITION_TIME;
+                        safeRandomizeAllLayers();
+                    }
+                }
+            }
+        };
 
-        animationTimeline.play();
-        randomizer.play();
+        animationTimer.start();
     }
 
     private void setupWindowListeners(Scene scene) {
@@ -120,7 +153,7 @@ public class Win11Aurora3 extends Application {
     }
 
     private void updateLayers() {
-        final double timeStep = 0.016;
+        double timeStep = clock.getStep();
         for (AuroraLayer layer : layers) {
             if (layer != null) {
                 layer.update(timeStep, TRANSITION_TIME);
@@ -160,8 +193,8 @@ public class Win11Aurora3 extends Application {
 
     @Override
     public void stop() {
-        if (animationTimeline != null) {
-            animationTimeline.stop();
+        if (animationTimer != null) {
+            animationTimer.stop();
         }
     }
 
@@ -215,7 +248,7 @@ public class Win11Aurora3 extends Application {
             double xSpeed = lerp(currentXSpeed, targetXSpeed, progress);
             double ySpeed = lerp(currentYSpeed, targetYSpeed, progress);
             double rotation = lerp(currentRotation, targetRotation, progress);
-            Color color = safeInterpolateColor(currentColor, targetColor, progress);
+            int shade = safeColorShade(currentColor, targetColor, progress);
             double blur = lerp(currentBlur, targetBlur, progress);
             double scale = lerp(currentScale, targetScale, progress);
 
@@ -232,7 +265,7 @@ public class Win11Aurora3 extends Application {
                     rotation * time,
                     scale,
                     blur,
-                    color,
+                    shade,
                     parentRadius
             );
         }
@@ -244,25 +277,26 @@ public class Win11Aurora3 extends Application {
 
     private static class RectangleWrapper {
         private final Circle node = new Circle();
-        private final GradientManager gradientManager = new GradientManager();
-
+        private final BoxBlur blur = new BoxBlur(0, 0, 3);
         RectangleWrapper() {
             node.setOpacity(0.8);  // Increased base opacity
-            node.setFill(gradientManager.updateGradient(COLOR_PALETTE[0]));
+            node.setFill(FILLS.get(safeColorShade(COLOR_PALETTE[0], COLOR_PALETTE[0], 0), 0));
+            node.setEffect(blur);
         }
 
         void update(double x, double y, double rotation,
-                    double scale, double blur, Color color,
+                    double scale, double blur, int shade,
                     double radius) {
             // Update gradient with current color
-            node.setFill(gradientManager.updateGradient(color));
+            node.setFill(FILLS.get(shade, 0));
 
             node.setTranslateX(x);
             node.setTranslateY(y);
             node.setRotate(rotation);
             node.setScaleX(scale);
             node.setScaleY(scale);
-            node.setEffect(new BoxBlur(blur, blur, 3));
+            this.blur.setWidth(blur);
+            this.blur.setHeight(blur);
 
             // Ensure proper sizing
             node.setRadius(radius);
@@ -272,37 +306,4 @@ public class Win11Aurora3 extends Application {
             node.setRadius(radius);
         }
     }
-
-    private static class GradientManager {
-        private final Map<ColorPair, LinearGradient> gradientCache =
-                Collections.synchronizedMap(new WeakHashMap<>());
-
-        LinearGradient updateGradient(Color color) {
-            if (color == null) return createFallbackGradient();
-
-            Color start = color.deriveColor(0, 1, 1, 0.9); // More opaque
-            Color end = color.deriveColor(30, 1, 0.9, 0.6); // More visible
-            return gradientCache.computeIfAbsent(
-                    new ColorPair(start, end),
-                    k -> new LinearGradient(
-                            0, 0,
-                            1, 1,
-                            true,
-                            CycleMethod.NO_CYCLE,
-                            new Stop(0, start),
-                            new Stop(1, end)
-                    )
-            );
-        }
-
-        private LinearGradient createFallbackGradient() {
-            return new LinearGradient(0, 0, 1, 1, true, CycleMethod.NO_CYCLE,
-                    new Stop(0, Color.BLUE),
-                    new Stop(1, Color.PURPLE)
-            );
-        }
-
-        private record ColorPair(Color start, Color end) {
-        }
-    }
-}
\ No newline at end of file
+}
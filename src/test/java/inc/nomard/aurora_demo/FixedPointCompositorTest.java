@@ -0,0 +1,176 @@
+package inc.nomard.aurora_demo;
+
+import javafx.scene.effect.BlendMode;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FixedPointCompositorTest {
+
+    // Levels per channel the integer blend may differ from the float reference. One layer is off
+    // by its 8.8 alpha and rounding, in a stack soft light's steep curve near black amplifies that
+    private static final int LAYER_TOLERANCE = 2;
+    private static final int STACK_TOLERANCE = 4;
+    private static final int STACKS = 2000;
+
+    @Test
+    void singleLayersMatchTheReferenceBlend() {
+        for (BlendMode mode : new BlendMode[]{BlendMode.SCREEN, BlendMode.SOFT_LIGHT, BlendMode.ADD}) {
+            assertMatchesReference(new BlendMode[]{mode}, 1, 7, LAYER_TOLERANCE);
+        }
+    }
+
+    @Test
+    void mixedStacksMatchTheReferenceBlend() {
+        assertMatchesReference(new BlendMode[]{BlendMode.ADD, BlendMode.SOFT_LIGHT, BlendMode.SCREEN}, 6, 11,
+                STACK_TOLERANCE);
+        assertMatchesReference(new BlendMode[]{BlendMode.SOFT_LIGHT}, 4, 13, STACK_TOLERANCE);
+    }
+
+    @Test
+    void softLightFrameMatchesTheCanvasOverItsBackdrop() {
+        Random random = new Random(17);
+        int width = 64, height = 48, layers = 5;
+        LayerFrame frame = new LayerFrame(layers);
+        for (int l = 0; l < layers; l++) {
+            frame.centerX[l] = random.nextDouble() * width;
+            frame.centerY[l] = random.nextDouble() * height;
+            frame.gradientX[l] = frame.centerX[l] + random.nextDouble() * 10 - 5;
+            frame.gradientY[l] = frame.centerY[l] + random.nextDouble() * 10 - 5;
+            frame.radius[l] = 20 + random.nextDouble() * 30;
+            frame.blur[l] = 1 + random.nextDouble() * 15;
+            frame.innerStop[l] = 0xC0000000 | random.nextInt(0x1000000);
+            frame.midStop[l] = 0x60000000 | random.nextInt(0x1000000);
+            frame.outerStop[l] = random.nextInt(0x1000000);
+        }
+        int backdrop = 0xFFFFFFFF;
+        int[] pixels = new int[width * height];
+        PixelRasterizer rasterizer = new PixelRasterizer(
+                FixedPointCompositor.overBackdrop(backdrop, BlendMode.SOFT_LIGHT));
+        rasterizer.render(frame, pixels, width, height, 1);
+
+        int worst = 0;
+        long sum = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int[] expected = canvasReference(frame, x + 0.5, y + 0.5, backdrop);
+                for (int c = 0; c < 3; c++) {
+                    int actual = (pixels[y * width + x] >> (16 - 8 * c)) & 0xFF;
+                    worst = Math.max(worst, Math.abs(actual - expected[c]));
+                    sum += actual;
+                }
+            }
+        }
+        assertTrue(worst <= STACK_TOLERANCE, "worst difference " + worst + " levels");
+        // Over a white fill the aurora is pastel, not the near black of soft light over the dark background
+        assertTrue(sum / (width * height * 3.0) > 128);
+    }
+
+    @Test
+    void parseReadsTheLayerModes() {
+        assertEquals("fixed-point-[screen]", FixedPointCompositor.parse("").name());
+        assertEquals("fixed-point-[soft_light, add]", FixedPointCompositor.parse(":soft_light, ADD").name());
+        assertThrows(IllegalArgumentException.class, () -> FixedPointCompositor.parse(":multiply"));
+    }
+
+    // Random stacks of flat layers covering the pixel, so only the blend math decides the result
+    private static void assertMatchesReference(BlendMode[] modes, int layers, long seed, int tolerance) {
+        Random random = new Random(seed);
+        PixelRasterizer rasterizer = new PixelRasterizer(new FixedPointCompositor(modes));
+        LayerFrame frame = new LayerFrame(layers);
+        int[] pixel = new int[1];
+        int worst = 0;
+
+        for (int n = 0; n < STACKS; n++) {
+            for (int l = 0; l < layers; l++) {
+                frame.radius[l] = 1000;
+                frame.blur[l] = 1;
+                int argb = random.nextInt();
+                frame.innerStop[l] = argb;
+                frame.midStop[l] = argb;
+                frame.outerStop[l] = argb;
+            }
+            rasterizer.render(frame, pixel, 1, 1, 1);
+
+            int[] expected = reference(frame, modes);
+            for (int c = 0; c < 3; c++) {
+                int actual = (pixel[0] >> (16 - 8 * c)) & 0xFF;
+                worst = Math.max(worst, Math.abs(actual - expected[c]));
+            }
+        }
+        assertTrue(worst <= tolerance, "worst difference " + worst + " levels for " + layers + " layers");
+    }
+
+    private static int[] reference(LayerFrame frame, BlendMode[] modes) {
+        int[] result = new int[3];
+        for (int c = 0; c < 3; c++) {
+            int shift = 16 - 8 * c;
+            double d = ((PixelRasterizer.BACKGROUND >> shift) & 0xFF) / 255.0;
+            for (int l = 0; l < frame.count; l++) {
+                double s = ((frame.innerStop[l] >> shift) & 0xFF) / 255.0;
+                double a = (frame.innerStop[l] >>> 24) / 255.0 * PixelRasterizer.BASE_OPACITY;
+                d = switch (modes[l % modes.length]) {
+                    case SOFT_LIGHT -> d + (softLight(d, s) - d) * a;
+                    case ADD -> Math.min(1, d + s * a);
+                    default -> d + s * a * (1 - d);
+                };
+            }
+            result[c] = (int) Math.round(d * 255);
+        }
+        return result;
+    }
+
+    // A cleared canvas with a SOFT_LIGHT global blend mode over an opaque fill: the W3C general
+    // formula over a transparent start, so the first layer lands source-over, then source-over
+    // onto the fill. Layer color and alpha use the scalar kernels' geometry in float
+    private static int[] canvasReference(LayerFrame frame, double px, double py, int backdrop) {
+        double[] color = new double[3];
+        double alpha = 0;
+        for (int l = 0; l < frame.count; l++) {
+            double edge = (frame.radius[l] - Math.hypot(px - frame.centerX[l], py - frame.centerY[l]))
+                    / Math.max(1, frame.blur[l]) + 0.5;
+            if (edge <= 0) {
+                continue;
+            }
+            double t = Math.hypot(px - frame.gradientX[l], py - frame.gradientY[l]) / frame.radius[l];
+            int from = t < LayerFrame.MID_STOP ? frame.innerStop[l] : frame.midStop[l];
+            int to = t < LayerFrame.MID_STOP ? frame.midStop[l] : frame.outerStop[l];
+            double f = t < LayerFrame.MID_STOP ? t / LayerFrame.MID_STOP
+                    : Math.min(1, (t - LayerFrame.MID_STOP) / (1 - LayerFrame.MID_STOP));
+
+            double sourceAlpha = lerp(from >>> 24, to >>> 24, f) / 255 * Math.min(1, edge)
+                    * PixelRasterizer.BASE_OPACITY;
+            for (int c = 0; c < 3; c++) {
+                int shift = 16 - 8 * c;
+                double s = lerp((from >> shift) & 0xFF, (to >> shift) & 0xFF, f) / 255;
+                double straight = alpha > 0 ? Math.min(1, color[c] / alpha) : 0;
+                color[c] = s * sourceAlpha * (1 - alpha) + color[c] * (1 - sourceAlpha)
+                        + sourceAlpha * alpha * softLight(straight, s);
+            }
+            alpha += sourceAlpha - sourceAlpha * alpha;
+        }
+        int[] result = new int[3];
+        for (int c = 0; c < 3; c++) {
+            double fill = ((backdrop >> (16 - 8 * c)) & 0xFF) / 255.0;
+            result[c] = (int) Math.round((color[c] + fill * (1 - alpha)) * 255);
+        }
+        return result;
+    }
+
+    private static double lerp(double from, double to, double f) {
+        return from + (to - from) * f;
+    }
+
+    // W3C compositing spec soft light
+    private static double softLight(double d, double s) {
+        if (s <= 0.5) {
+            return d - (1 - 2 * s) * d * (1 - d);
+        }
+        double g = d <= 0.25 ? ((16 * d - 12) * d + 4) * d : Math.sqrt(d);
+        return d + (2 * s - 1) * (g - d);
+    }
+}
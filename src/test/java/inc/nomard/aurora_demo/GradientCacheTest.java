@@ -0,0 +1,175 @@
+package inc.nomard.aurora_demo;
+
+import javafx.scene.paint.Color;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GradientCacheTest {
+
+    // Four entries index into 16 slots
+    private static final int CAPACITY = 4;
+    private static final int INDEX_MASK = 15;
+
+    @Test
+    void evictionKeepsAWrappedProbeChainIntact() {
+        GradientCache cache = new GradientCache(CAPACITY);
+        GradientCache.Style<Color> style = cache.style("test", GradientCacheTest::create);
+
+        // Three shades that hash to the last slot and one to the first, so the chain wraps to slot 2
+        int[] last = shadesWithHome(INDEX_MASK, 3);
+        int first = shadesWithHome(0, 1)[0];
+        Color a = style.get(last[0], 0);
+        Color b = style.get(last[1], 0);
+        Color c = style.get(last[2], 0);
+        Color d = style.get(first, 0);
+        assertEquals(4, cache.getMisses());
+
+        // Nothing was used again, so the hand evicts the first entry, the head of the chain
+        Color e = style.get(shadesWithHome(7, 1)[0], 0);
+        assertEquals(1, cache.getEvictions());
+
+        assertSame(b, style.get(last[1], 0));
+        assertSame(c, style.get(last[2], 0));
+        assertSame(d, style.get(first, 0));
+        assertSame(e, style.get(shadesWithHome(7, 1)[0], 0));
+        assertEquals(4, cache.getHits());
+        assertEquals(5, cache.getMisses());
+
+        Color again = style.get(last[0], 0);
+        assertNotSame(a, again);
+        assertEquals(6, cache.getMisses());
+        assertEquals(2, cache.getEvictions());
+    }
+
+    @Test
+    void countersFollowHitsMissesAndEvictions() {
+        GradientCache cache = new GradientCache(2);
+        GradientCache.Style<Color> style = cache.style("test", GradientCacheTest::create);
+
+        Color first = style.get(1, 1);
+        assertSame(first, style.get(1, 1));
+        style.get(2, 1);
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(0, cache.getEvictions());
+        assertEquals(2, cache.size());
+
+        // The first entry was used since the hand passed, so the second one goes
+        style.get(3, 1);
+        assertEquals(1, cache.getEvictions());
+        assertSame(first, style.get(1, 1));
+        style.get(2, 1);
+        assertEquals(2, cache.getHits());
+        assertEquals(4, cache.getMisses());
+        assertEquals(2, cache.getEvictions());
+        assertEquals(2, cache.size());
+        assertEquals(2 / 6.0, cache.getHitRate());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        style.get(1, 1);
+        assertEquals(5, cache.getMisses());
+    }
+
+    @Test
+    void stylesDoNotShareEntries() {
+        GradientCache cache = new GradientCache(8);
+        GradientCache.Style<Color> one = cache.style("one", GradientCacheTest::create);
+        GradientCache.Style<Color> two = cache.style("two", GradientCacheTest::create);
+
+        assertNotSame(one.get(1, 2), two.get(1, 2));
+        assertSame(one, cache.style("one", GradientCacheTest::create));
+        assertEquals(2, cache.getMisses());
+    }
+
+    // Keys crowded around the end of the index, so chains keep wrapping while entries are evicted
+    @Test
+    void everySurvivingKeyIsFoundPastCapacity() {
+        GradientCache cache = new GradientCache(CAPACITY);
+        GradientCache.Style<Color> style = cache.style("test", GradientCacheTest::create);
+        List<Integer> shades = new ArrayList<>();
+        for (int home : new int[]{INDEX_MASK - 1, INDEX_MASK, 0, 1}) {
+            for (int shade : shadesWithHome(home, 3)) {
+                shades.add(shade);
+            }
+        }
+
+        ClockModel model = new ClockModel(CAPACITY);
+        Map<Integer, Color> returned = new HashMap<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 20000; i++) {
+            int shade = shades.get(random.nextInt(shades.size()));
+            boolean hit = model.get(shade);
+            long misses = cache.getMisses();
+            Color color = style.get(shade, 0);
+
+            assertEquals(hit, cache.getMisses() == misses, "lookup " + i + " of shade " + shade);
+            if (hit) {
+                assertSame(returned.get(shade), color);
+            }
+            returned.put(shade, color);
+        }
+        assertEquals(model.evictions, cache.getEvictions());
+        assertTrue(cache.getEvictions() > 1000);
+    }
+
+    private static Color create(int shade, int column) {
+        return new Color(shade % 256 / 255.0, column % 256 / 255.0, 0, 1);
+    }
+
+    // The first count shades of the only style whose column 0 key hashes to home
+    private static int[] shadesWithHome(int home, int count) {
+        int[] shades = new int[count];
+        for (int shade = 0, found = 0; found < count; shade++) {
+            if ((GradientCache.hash(GradientCache.key(0, shade, 0)) & INDEX_MASK) == home) {
+                shades[found++] = shade;
+            }
+        }
+        return shades;
+    }
+
+    // CLOCK as documented, over plain lists, to tell which lookups must hit
+    private static final class ClockModel {
+        private final int capacity;
+        private final List<Integer> keys = new ArrayList<>();
+        private final List<Boolean> referenced = new ArrayList<>();
+        private int hand;
+        private long evictions;
+
+        ClockModel(int capacity) {
+            this.capacity = capacity;
+        }
+
+        boolean get(int key) {
+            int entry = keys.indexOf(key);
+            if (entry >= 0) {
+                referenced.set(entry, true);
+                return true;
+            }
+            if (keys.size() < capacity) {
+                keys.add(key);
+                referenced.add(false);
+                return false;
+            }
+            while (referenced.get(hand)) {
+                referenced.set(hand, false);
+                hand = (hand + 1) % capacity;
+            }
+            keys.set(hand, key);
+            referenced.set(hand, false);
+            hand = (hand + 1) % capacity;
+            evictions++;
+            return false;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package inc.nomard.aurora_demo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class ParticleSplatterTest {
+
+    private static final int SIZE = 50;
+    private static final int RADIUS = 5;
+
+    @Test
+    void blobOverACornerShowsInEveryCorner() {
+        int[] pixels = splat(0, 0);
+
+        assertNotEquals(PixelRasterizer.BACKGROUND, pixels[0]);
+        assertEquals(pixels[1], pixels[SIZE - 1]);
+        assertEquals(pixels[SIZE], pixels[(SIZE - 1) * SIZE]);
+        assertEquals(pixels[SIZE + 1], pixels[SIZE * SIZE - 1]);
+        assertEquals(PixelRasterizer.BACKGROUND, pixels[SIZE / 2 * SIZE + SIZE / 2]);
+    }
+
+    @Test
+    void wrappedPiecesAddUpToOneWholeBlob() {
+        int whole = countCovered(splat(SIZE / 2, SIZE / 2));
+
+        assertEquals(whole, countCovered(splat(0, 0)));
+        assertEquals(whole, countCovered(splat(SIZE - 2, SIZE / 2)));
+        assertEquals(whole, countCovered(splat(SIZE / 2, 1)));
+    }
+
+    private static int[] splat(double x, double y) {
+        ParticleField field = new ParticleField(1, 10, new Random(1));
+        field.x[0] = x;
+        field.y[0] = y;
+        field.color[0] = 0xFFFFFFFF;
+        int[] pixels = new int[SIZE * SIZE];
+        new ParticleSplatter(RADIUS, 1).render(field, pixels, SIZE, SIZE, 1);
+        return pixels;
+    }
+
+    private static int countCovered(int[] pixels) {
+        int covered = 0;
+        for (int pixel : pixels) {
+            if (pixel != PixelRasterizer.BACKGROUND) {
+                covered++;
+            }
+        }
+        return covered;
+    }
+}
@@ -0,0 +1,52 @@
+package inc.nomard.aurora_demo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RunningSumBlurTest {
+
+    private static final int[] RADII = {1, 2, 7, 64, 200, 201, 500, 1000, 5000, 20000};
+    private static final int[] FLAT_COLORS = {0xFFFFFFFF, 0xFF000000, 0xFF7F3F01, 0x80402010, 0x00000000};
+
+    @Test
+    void flatFieldKeepsItsExactValue() {
+        RunningSumBlur blur = new RunningSumBlur();
+        for (int radius : RADII) {
+            for (int color : FLAT_COLORS) {
+                int[] pixels = new int[37 * 23];
+                Arrays.fill(pixels, color);
+                blur.blur(pixels, 37, 23, radius, 3, RunningSumBlur.Edges.CLAMP);
+
+                int[] expected = new int[pixels.length];
+                Arrays.fill(expected, color);
+                assertArrayEquals(expected, pixels,
+                        String.format("radius %d, color %08x", radius, color));
+            }
+        }
+    }
+
+    @Test
+    void transparentEdgesKeepTheCenterOfALargeFlatArea() {
+        RunningSumBlur blur = new RunningSumBlur();
+        int size = 101;
+        int[] pixels = new int[size * size];
+        Arrays.fill(pixels, 0xFFFFFFFF);
+        blur.blur(pixels, size, size, 10, 3, RunningSumBlur.Edges.TRANSPARENT);
+
+        // Three passes of radius 10 reach 30 pixels in from the border
+        assertEquals(0xFFFFFFFF, pixels[50 * size + 50]);
+        assertEquals(0xFFFFFFFF, pixels[31 * size + 31]);
+    }
+
+    @Test
+    void radiusBelowOneLeavesThePixelsAlone() {
+        int[] pixels = {0xFF102030, 0xFFFFFFFF, 0x00000000, 0x80404040};
+        int[] before = pixels.clone();
+        new RunningSumBlur().blur(pixels, 2, 2, 0.4, 3, RunningSumBlur.Edges.CLAMP);
+        assertArrayEquals(before, pixels);
+    }
+}
@@ -0,0 +1,121 @@
+package inc.nomard.aurora_demo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpatialHashGridTest {
+
+    private static final double CELL = 10;
+    private static final double WIDTH = 95;
+    private static final double HEIGHT = 40;
+
+    @Test
+    void randomPointsFindTheSamePairsAsBruteForce() {
+        Random random = new Random(5);
+        double[] x = new double[400];
+        double[] y = new double[400];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = random.nextDouble() * WIDTH;
+            y[i] = random.nextDouble() * HEIGHT;
+        }
+        assertSamePairs(x, y);
+    }
+
+    @Test
+    void pointsOnCellBoundariesFindTheSamePairsAsBruteForce() {
+        // Every grid corner and edge midpoint, pairs exactly one cell apart are just out of range
+        int columns = (int) (WIDTH / CELL) + 1;
+        int rows = (int) (HEIGHT / CELL) + 1;
+        double[] x = new double[columns * rows * 2];
+        double[] y = new double[x.length];
+        for (int r = 0, i = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                x[i] = c * CELL;
+                y[i++] = r * CELL;
+                x[i] = c * CELL + CELL / 2;
+                y[i++] = r * CELL - Math.ulp(r * CELL);
+            }
+        }
+        assertSamePairs(x, y);
+    }
+
+    @Test
+    void pointsOutsideAreClampedIntoBorderCellsAndStillPaired() {
+        Random random = new Random(8);
+        double[] x = new double[300];
+        double[] y = new double[300];
+        for (int i = 0; i < x.length; i++) {
+            // Up to two cells beyond every side
+            x[i] = random.nextDouble() * (WIDTH + 4 * CELL) - 2 * CELL;
+            y[i] = random.nextDouble() * (HEIGHT + 4 * CELL) - 2 * CELL;
+        }
+        SpatialHashGrid grid = assertSamePairs(x, y);
+
+        assertEquals(0, grid.cellX(-2 * CELL));
+        assertEquals(grid.getColumns() - 1, grid.cellX(WIDTH + 2 * CELL));
+        assertEquals(grid.getRows() - 1, grid.cellY(HEIGHT));
+    }
+
+    @Test
+    void everyPointIsBucketedOnce() {
+        double[] x = {0, 9.999, 10, 94.9, 95, -1};
+        double[] y = {0, 0, 39.99, 40, 5, 5};
+        SpatialHashGrid grid = new SpatialHashGrid(CELL);
+        grid.build(x, y, x.length, WIDTH, HEIGHT);
+
+        assertEquals(10, grid.getColumns());
+        assertEquals(4, grid.getRows());
+        int cells = grid.getColumns() * grid.getRows();
+        assertEquals(x.length, grid.cellStart[cells]);
+        Set<Integer> seen = new TreeSet<>();
+        for (int c = 0; c < cells; c++) {
+            for (int a = grid.cellStart[c]; a < grid.cellStart[c + 1]; a++) {
+                int i = grid.items[a];
+                assertTrue(seen.add(i));
+                assertEquals(c, grid.cellY(y[i]) * grid.getColumns() + grid.cellX(x[i]));
+            }
+        }
+    }
+
+    private static SpatialHashGrid assertSamePairs(double[] x, double[] y) {
+        SpatialHashGrid grid = new SpatialHashGrid(CELL);
+        grid.build(x, y, x.length, WIDTH, HEIGHT);
+
+        Set<String> expected = new TreeSet<>();
+        for (int i = 0; i < x.length; i++) {
+            for (int j = i + 1; j < x.length; j++) {
+                if (inRange(x, y, i, j)) {
+                    expected.add(i + "-" + j);
+                }
+            }
+        }
+        assertTrue(expected.size() > 10, "too few pairs to compare");
+        assertEquals(expected, gridPairs(grid, x, y));
+        return grid;
+    }
+
+    private static Set<String> gridPairs(SpatialHashGrid grid, double[] x, double[] y) {
+        Set<String> pairs = new TreeSet<>();
+        long checks = grid.forEachPair(x, y, CELL, (i, j, dx, dy, d2) -> {
+            assertTrue(i < j);
+            assertEquals(x[j] - x[i], dx);
+            assertEquals(y[j] - y[i], dy);
+            assertEquals(dx * dx + dy * dy, d2);
+            assertTrue(pairs.add(i + "-" + j), "pair visited twice");
+        });
+        assertTrue(checks >= pairs.size());
+        return pairs;
+    }
+
+    private static boolean inRange(double[] x, double[] y, int i, int j) {
+        double dx = x[j] - x[i];
+        double dy = y[j] - y[i];
+        return dx * dx + dy * dy < CELL * CELL;
+    }
+}
@@ -0,0 +1,144 @@
+package inc.nomard.aurora_demo;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+/**
+ * {@link RowKernels} on {@code jdk.incubator.vector}, shading as many
+ * pixels per step as the preferred species has float lanes. The row is
+ * accumulated layer by layer in planar float channels, then packed. Row
+ * tails shorter than a vector go through the scalar kernels.
+ *
+ * <p>Only compiled with -PvectorKernels and loaded reflectively when the
+ * incubator module is in the boot layer, see {@link RowKernels#select()}.
+ */
+final class VectorKernels implements RowKernels {
+
+    private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+    private static final FloatVector LANE_CENTERS = laneCenters();
+
+    private static final int SCRATCH_ROWS = 6;
+
+    // One planar r, g, b row plus a layer's inner, outer and alpha weights per rendering thread
+    private static final ThreadLocal<float[][]> ROW_SCRATCH =
+            ThreadLocal.withInitial(() -> new float[SCRATCH_ROWS][0]);
+
+    private final ScalarKernels tail = new ScalarKernels();
+
+    private static FloatVector laneCenters() {
+        float[] centers = new float[FLOATS.length()];
+        for (int i = 0; i < centers.length; i++) {
+            centers[i] = i + 0.5f;
+        }
+        return FloatVector.fromArray(FLOATS, centers, 0);
+    }
+
+    @Override
+    public void renderRow(PixelRasterizer layers, int[] pixels, int offset, int from, int to, float x0, float py) {
+        int bound = from + FLOATS.loopBound(to - from);
+        float[][] row = rowScratch(bound - from);
+        float[] r = row[0], g = row[1], b = row[2];
+        float[] inner = row[3], outer = row[4], alpha = row[5];
+        Arrays.fill(r, 0, bound - from, ScalarKernels.BACKGROUND_R);
+        Arrays.fill(g, 0, bound - from, ScalarKernels.BACKGROUND_G);
+        Arrays.fill(b, 0, bound - from, ScalarKernels.BACKGROUND_B);
+
+        // Layer by layer over the row, so each layer's constants are broadcast once. The weights
+        // go through scratch rows rather than vector arguments: the whole layer in one method
+        // outgrows C2's inlining budget, and vectors passed to a call that isn't inlined get boxed
+        int s = 0;
+        for (int l = 0; l < layers.layers; l++, s += PixelRasterizer.STOP_STRIDE) {
+            if (!weighLayer(layers, l, inner, outer, alpha, bound - from, x0 + from, py)) {
+                continue;
+            }
+            float[] stops = layers.stops;
+            screenChannel(r, inner, outer, alpha, bound - from, stops[s], stops[s + 4], stops[s + 8]);
+            screenChannel(g, inner, outer, alpha, bound - from, stops[s + 1], stops[s + 5], stops[s + 9]);
+            screenChannel(b, inner, outer, alpha, bound - from, stops[s + 2], stops[s + 6], stops[s + 10]);
+        }
+
+        // A plain loop, C2 vectorizes it by itself, while the int shifts and F2I conversion
+        // of the vector API aren't intrinsified for every species and box every vector
+        for (int i = 0, p = offset + from; i < bound - from; i++, p++) {
+            pixels[p] = 0xFF000000
+                    | (int) (r[i] * 255f + 0.5f) << 16
+                    | (int) (g[i] * 255f + 0.5f) << 8
+                    | (int) (b[i] * 255f + 0.5f);
+        }
+
+        tail.renderRow(layers, pixels, offset, bound, to, x0, py);
+    }
+
+    private static float[][] rowScratch(int n) {
+        float[][] row = ROW_SCRATCH.get();
+        if (row[0].length < n) {
+            row = new float[SCRATCH_ROWS][n];
+            ROW_SCRATCH.set(row);
+        }
+        return row;
+    }
+
+    // Fills the stop weights and alpha of one layer over the row, false if it doesn't touch the row
+    private static boolean weighLayer(PixelRasterizer layers, int l,
+                                      float[] inner, float[] outer, float[] alpha, int n, float x0, float py) {
+        float ey = py - layers.centerY[l];
+        float dy = py - layers.gradientY[l];
+        FloatVector ey2 = FloatVector.broadcast(FLOATS, ey * ey);
+        FloatVector dy2 = FloatVector.broadcast(FLOATS, dy * dy);
+        float centerX = layers.centerX[l];
+        float gradientX = layers.gradientX[l];
+        float radius = layers.radius[l];
+        float invBlur = layers.invBlur[l];
+        float invRadius = layers.invRadius[l];
+        int s = l * PixelRasterizer.STOP_STRIDE;
+        float innerAlpha = layers.stops[s + 3];
+        float midAlpha = layers.stops[s + 7];
+        float outerAlpha = layers.stops[s + 11];
+        boolean touched = false;
+
+        for (int i = 0; i < n; i += FLOATS.length()) {
+            FloatVector px = LANE_CENTERS.add(x0 + i);
+
+            FloatVector ex = px.sub(centerX);
+            FloatVector edge = ex.fma(ex, ey2).sqrt()
+                    .neg().add(radius).mul(invBlur).add(0.5f)
+                    .max(0f).min(1f);
+            touched |= edge.compare(VectorOperators.GT, 0f).anyTrue();
+
+            FloatVector dx = px.sub(gradientX);
+            FloatVector t = dx.fma(dx, dy2).sqrt().mul(invRadius);
+            // Weights of the inner and outer stop against the mid stop, at most one is non-zero
+            FloatVector in = t.mul(-ScalarKernels.INV_MID_STOP).add(1f).max(0f);
+            FloatVector out = t.sub(ScalarKernels.MID_STOP).mul(ScalarKernels.INV_OUTER_SPAN).max(0f).min(1f);
+            in.intoArray(inner, i);
+            out.intoArray(outer, i);
+            out.mul(outerAlpha - midAlpha).add(in.fma(innerAlpha - midAlpha, midAlpha))
+                    .mul(edge).mul(PixelRasterizer.BASE_OPACITY)
+                    .intoArray(alpha, i);
+        }
+        return touched;
+    }
+
+    // SCREEN of one channel: dst + src * (1 - dst), src = (mid + (in - mid) * inner + (out - mid) * outer) * alpha
+    private static void screenChannel(float[] channel, float[] inner, float[] outer, float[] alpha, int n,
+                                      float innerStop, float midStop, float outerStop) {
+        float toInner = innerStop - midStop;
+        float toOuter = outerStop - midStop;
+        for (int i = 0; i < n; i += FLOATS.length()) {
+            FloatVector in = FloatVector.fromArray(FLOATS, inner, i);
+            FloatVector src = FloatVector.fromArray(FLOATS, outer, i).mul(toOuter)
+                    .add(in.fma(toInner, midStop))
+                    .mul(FloatVector.fromArray(FLOATS, alpha, i));
+            FloatVector dst = FloatVector.fromArray(FLOATS, channel, i);
+            src.fma(dst.neg().add(1f), dst).intoArray(channel, i);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "vector-" + FLOATS.length() + "x32";
+    }
+}